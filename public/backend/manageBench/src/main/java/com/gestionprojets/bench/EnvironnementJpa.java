@@ -0,0 +1,179 @@
+package com.gestionprojets.bench;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import metier.ProjetManager;
+import metier.entities.Projet;
+import metier.entities.StatutProjet;
+import metier.entities.Utilisateur;
+import metier.impl.FluxChangements;
+import metier.impl.ProjetManagerImpl;
+
+/**
+ * Fait tourner les beans de manageEJB hors conteneur : une base H2 en mémoire, un EntityManager
+ * partagé (comme le contexte de persistance transactionnel du conteneur) et une injection
+ * minimale des champs @PersistenceContext, @EJB et @Resource, suivie des @PostConstruct.
+ * Mono-thread : un environnement par état JMH.
+ */
+public class EnvironnementJpa implements AutoCloseable {
+
+    static final String[] TECHNOLOGIES = {"Java", "React", "Python", "Go", "Angular", "Node"};
+    static final int NB_UTILISATEURS = 100;
+
+    private final EntityManagerFactory emf;
+    private final EntityManager em;
+    private final SynchronisationsLocales transactions = new SynchronisationsLocales();
+    private final Map<Class<?>, Object> beans = new HashMap<>();
+
+    public EnvironnementJpa(String nomBase) {
+        this.emf = Persistence.createEntityManagerFactory("bench",
+                Map.of("jakarta.persistence.jdbc.url", "jdbc:h2:mem:" + nomBase + ";DB_CLOSE_DELAY=-1"));
+        this.em = emf.createEntityManager();
+    }
+
+    public ProjetManager projetManager() {
+        return bean(ProjetManagerImpl.class);
+    }
+
+    // Exécute l'action dans une transaction locale puis vide le contexte de persistance
+    public <T> T enTransaction(Supplier<T> action) {
+        em.getTransaction().begin();
+        boolean valide = false;
+        try {
+            T resultat = action.get();
+            transactions.avantCommit();
+            em.getTransaction().commit();
+            valide = true;
+            return resultat;
+        } finally {
+            if (!valide && em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            transactions.terminer(valide ? Status.STATUS_COMMITTED : Status.STATUS_ROLLEDBACK);
+            em.clear();
+        }
+    }
+
+    // Crée NB_UTILISATEURS utilisateurs puis nbProjets projets via ProjetManager.creerProjets
+    public void peupler(int nbProjets) {
+        Long[] utilisateurs = enTransaction(() -> {
+            Long[] ids = new Long[NB_UTILISATEURS];
+            for (int i = 0; i < NB_UTILISATEURS; i++) {
+                Utilisateur u = new Utilisateur();
+                u.setNom("Utilisateur " + i);
+                u.setEmail("utilisateur" + i + "@bench.local");
+                u.setMot_de_passe("secret");
+                u.setRole("user");
+                em.persist(u);
+                ids[i] = u.getId();
+            }
+            return ids;
+        });
+        ProjetManager manager = projetManager();
+        for (int debut = 0; debut < nbProjets; debut += ProjetManager.TAILLE_IMPORT_MAX) {
+            int fin = Math.min(debut + ProjetManager.TAILLE_IMPORT_MAX, nbProjets);
+            List<Projet> lot = new ArrayList<>(fin - debut);
+            for (int n = debut; n < fin; n++) {
+                lot.add(nouveauProjet("projet-" + n, n, utilisateurs[n % NB_UTILISATEURS]));
+            }
+            enTransaction(() -> manager.creerProjets(lot));
+        }
+    }
+
+    // Tour de la tâche planifiée de numérotation du journal, qui ne tourne pas hors conteneur
+    public long numeroterJournal() {
+        FluxChangements flux = bean(FluxChangements.class);
+        return enTransaction(flux::numeroter);
+    }
+
+    public Long premierUtilisateur() {
+        return enTransaction(() -> em.createQuery("SELECT MIN(u.id) FROM Utilisateur u", Long.class)
+                .getSingleResult());
+    }
+
+    static Projet nouveauProjet(String titre, long n, Long utilisateurId) {
+        Projet p = new Projet();
+        p.setTitre(titre);
+        p.setDescription("Description du projet " + titre + " pour les mesures de performance");
+        p.setTechnologie(TECHNOLOGIES[(int) (n % TECHNOLOGIES.length)]);
+        p.setStatut(StatutProjet.values()[(int) (n % StatutProjet.values().length)]);
+        Utilisateur u = new Utilisateur();
+        u.setId(utilisateurId);
+        p.setUtilisateur(u);
+        return p;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> T bean(Class<T> type) {
+        Object existant = beans.get(type);
+        if (existant != null) {
+            return (T) existant;
+        }
+        try {
+            T instance = type.getDeclaredConstructor().newInstance();
+            beans.put(type, instance);
+            for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                for (Field champ : c.getDeclaredFields()) {
+                    Object valeur = valeurInjectee(champ);
+                    if (valeur != null) {
+                        champ.setAccessible(true);
+                        champ.set(instance, valeur);
+                    }
+                }
+            }
+            for (Method m : type.getDeclaredMethods()) {
+                if (m.isAnnotationPresent(PostConstruct.class)) {
+                    m.setAccessible(true);
+                    enTransaction(() -> invoquer(m, instance));
+                }
+            }
+            return instance;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Impossible de créer " + type.getName(), e);
+        }
+    }
+
+    private Object valeurInjectee(Field champ) {
+        if (champ.isAnnotationPresent(PersistenceContext.class)) {
+            return em;
+        }
+        if (champ.isAnnotationPresent(EJB.class)) {
+            return bean(champ.getType());
+        }
+        if (champ.isAnnotationPresent(Resource.class)
+                && champ.getType() == TransactionSynchronizationRegistry.class) {
+            return transactions;
+        }
+        // Autres ressources du conteneur (timers, exécuteurs...) : non disponibles ici
+        return null;
+    }
+
+    private static Object invoquer(Method m, Object cible) {
+        try {
+            return m.invoke(cible);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        em.close();
+        emf.close();
+    }
+}
@@ -0,0 +1,107 @@
+package com.gestionprojets.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import metier.ProjetManager;
+import metier.dto.Page;
+import metier.dto.ProjetFilter;
+import metier.dto.ProjetSummary;
+import metier.entities.StatutProjet;
+
+/**
+ * Chemins chauds de ProjetManagerImpl sur une table de 1k, 100k et 1M projets.
+ * Débit (ops/ms) et distribution des latences (SampleTime : p50, p90, p99...) ;
+ * le taux d'allocation s'obtient avec -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProjetManagerBench {
+
+    @Param({"1000", "100000", "1000000"})
+    public int nbProjets;
+
+    private EnvironnementJpa env;
+    private ProjetManager manager;
+    private Long utilisateurId;
+    private long prochainTitre;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        env = new EnvironnementJpa("projets_" + nbProjets + "_" + System.nanoTime());
+        env.peupler(nbProjets);
+        manager = env.projetManager();
+        utilisateurId = env.premierUtilisateur();
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() {
+        env.close();
+    }
+
+    @Benchmark
+    public Long creerProjet() {
+        long n = prochainTitre++;
+        return env.enTransaction(() -> {
+            var projet = EnvironnementJpa.nouveauProjet("bench-" + n, n, utilisateurId);
+            manager.creerProjet(projet);
+            return projet.getId();
+        });
+    }
+
+    @Benchmark
+    public List<ProjetSummary> listerTousLesProjets() {
+        return env.enTransaction(() -> manager.listerTousLesProjets());
+    }
+
+    @Benchmark
+    public Page<ProjetSummary> listerTousLesProjetsPremierePage() {
+        return env.enTransaction(() -> manager.listerTousLesProjets(null, 50));
+    }
+
+    @Benchmark
+    public List<ProjetSummary> getProjetsByUserAndStatut() {
+        return env.enTransaction(() -> manager.getProjetsByUserAndStatut(utilisateurId, StatutProjet.EN_COURS));
+    }
+
+    @Benchmark
+    public Page<ProjetSummary> rechercherProjets() {
+        // Préfixe présent dans toutes les descriptions générées, combiné à une technologie
+        return env.enTransaction(() -> manager.rechercherProjets("java perf", 0, 20));
+    }
+
+    @Benchmark
+    public Page<ProjetSummary> rechercherParCriteres() {
+        ProjetFilter filtre = new ProjetFilter();
+        filtre.getStatuts().add(StatutProjet.EN_COURS);
+        filtre.getStatuts().add(StatutProjet.EN_ATTENTE);
+        filtre.getTechnologies().add("Java");
+        filtre.setTri("-dateCreation");
+        filtre.setLimit(50);
+        return env.enTransaction(() -> manager.rechercher(filtre));
+    }
+
+    @Benchmark
+    public Map<String, Long> stat() {
+        return env.enTransaction(() -> manager.stat());
+    }
+}
@@ -0,0 +1,89 @@
+package com.gestionprojets.bench;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import metier.dto.ProjetSummary;
+import metier.entities.Projet;
+import metier.entities.Utilisateur;
+
+/**
+ * Sérialisation JSON-B des réponses de liste de ProjetResource, sans base :
+ * entités Projet complètes (propriétaire embarqué) contre projections ProjetSummary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SerialisationJsonBench {
+
+    @Param({"1000", "100000", "1000000"})
+    public int nbProjets;
+
+    private Jsonb jsonb;
+    private List<Projet> projets;
+    private List<ProjetSummary> resumes;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        jsonb = JsonbBuilder.create();
+        projets = new ArrayList<>(nbProjets);
+        resumes = new ArrayList<>(nbProjets);
+        List<Utilisateur> utilisateurs = new ArrayList<>();
+        for (int i = 0; i < EnvironnementJpa.NB_UTILISATEURS; i++) {
+            Utilisateur u = new Utilisateur();
+            u.setId((long) i + 1);
+            u.setNom("Utilisateur " + i);
+            u.setEmail("utilisateur" + i + "@bench.local");
+            u.setMot_de_passe("secret");
+            u.setRole("user");
+            utilisateurs.add(u);
+        }
+        for (int n = 0; n < nbProjets; n++) {
+            Utilisateur u = utilisateurs.get(n % utilisateurs.size());
+            Projet p = EnvironnementJpa.nouveauProjet("projet-" + n, n, u.getId());
+            p.setId((long) n + 1);
+            p.setDateCreation(LocalDate.of(2024, 1, 1).plusDays(n % 365));
+            p.setUtilisateur(u);
+            projets.add(p);
+            resumes.add(new ProjetSummary(p.getId(), p.getTitre(), p.getDescription(), p.getStatut(), p.getTechnologie(),
+                    p.getDateCreation(), p.getDateTerminaison(), u.getId(), u.getNom()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() throws Exception {
+        jsonb.close();
+    }
+
+    @Benchmark
+    public void serialiserProjets() {
+        jsonb.toJson(projets, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void serialiserResumes() {
+        jsonb.toJson(resumes, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,72 @@
+package com.gestionprojets.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Remplace le registre JTA du conteneur : les synchronisations enregistrées pendant une
+ * transaction locale sont rejouées par EnvironnementJpa avant le commit, puis au commit ou au rollback.
+ */
+class SynchronisationsLocales implements TransactionSynchronizationRegistry {
+
+    private final List<Synchronization> synchronisations = new ArrayList<>();
+    private final Map<Object, Object> ressources = new HashMap<>();
+    private boolean rollbackOnly;
+
+    void avantCommit() {
+        for (Synchronization s : new ArrayList<>(synchronisations)) {
+            s.beforeCompletion();
+        }
+    }
+
+    void terminer(int statut) {
+        List<Synchronization> aNotifier = new ArrayList<>(synchronisations);
+        synchronisations.clear();
+        ressources.clear();
+        rollbackOnly = false;
+        for (Synchronization s : aNotifier) {
+            s.afterCompletion(statut);
+        }
+    }
+
+    @Override
+    public Object getTransactionKey() {
+        return this;
+    }
+
+    @Override
+    public void putResource(Object cle, Object valeur) {
+        ressources.put(cle, valeur);
+    }
+
+    @Override
+    public Object getResource(Object cle) {
+        return ressources.get(cle);
+    }
+
+    @Override
+    public void registerInterposedSynchronization(Synchronization sync) {
+        synchronisations.add(sync);
+    }
+
+    @Override
+    public int getTransactionStatus() {
+        return Status.STATUS_ACTIVE;
+    }
+
+    @Override
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    @Override
+    public boolean getRollbackOnly() {
+        return rollbackOnly;
+    }
+}
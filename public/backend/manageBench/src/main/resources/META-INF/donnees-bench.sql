@@ -0,0 +1 @@
+INSERT INTO sequence_id (nom_sequence, valeur) VALUES ('Changement', 0);
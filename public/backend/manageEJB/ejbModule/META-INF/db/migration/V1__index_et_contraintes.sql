@@ -0,0 +1,12 @@
+-- Index sur les colonnes filtrées par ProjetManagerImpl et contraintes d'unicité
+-- (remplacent les vérifications COUNT applicatives, sujettes aux courses).
+-- Doublons éventuels à corriger avant application :
+--   SELECT titre, COUNT(*) FROM Projet GROUP BY titre HAVING COUNT(*) > 1;
+--   SELECT email, COUNT(*) FROM Utilisateur GROUP BY email HAVING COUNT(*) > 1;
+
+CREATE INDEX idx_projet_statut ON Projet (statut);
+CREATE INDEX idx_projet_technologie ON Projet (technologie);
+CREATE INDEX idx_projet_utilisateur_statut ON Projet (utilisateur_id, statut);
+
+ALTER TABLE Projet ADD CONSTRAINT uk_projet_titre UNIQUE (titre);
+ALTER TABLE Utilisateur ADD CONSTRAINT uk_utilisateur_email UNIQUE (email);
@@ -0,0 +1,10 @@
+-- Générateur d'identifiants par table pour Projet (allocationSize = 50).
+-- La valeur de départ laisse une marge d'un bloc au-dessus du plus grand id existant.
+
+CREATE TABLE sequence_id (
+    nom_sequence VARCHAR(64) NOT NULL PRIMARY KEY,
+    valeur BIGINT NOT NULL
+);
+
+INSERT INTO sequence_id (nom_sequence, valeur)
+SELECT 'Projet', COALESCE(MAX(id), 0) + 51 FROM Projet;
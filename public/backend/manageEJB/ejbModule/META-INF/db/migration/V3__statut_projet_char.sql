@@ -0,0 +1,12 @@
+-- Statut de projet stocké sur un caractère (StatutProjetConverter) :
+-- C = EN_COURS, T = TERMINE, A = EN_ATTENTE. Toute autre valeur devient EN_ATTENTE,
+-- statut par défaut d'un nouveau projet.
+
+UPDATE Projet SET statut = CASE statut
+    WHEN 'EN_COURS' THEN 'C'
+    WHEN 'TERMINE' THEN 'T'
+    ELSE 'A'
+END;
+
+-- Syntaxe MySQL/MariaDB ; PostgreSQL : ALTER TABLE Projet ALTER COLUMN statut TYPE CHAR(1);
+ALTER TABLE Projet MODIFY statut CHAR(1);
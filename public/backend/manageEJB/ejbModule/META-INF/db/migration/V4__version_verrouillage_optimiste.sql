@@ -0,0 +1,5 @@
+-- Colonnes @Version de Projet et Utilisateur (verrouillage optimiste, ETag des ressources REST).
+-- Les lignes existantes partent de la version 0.
+
+ALTER TABLE Projet ADD version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE Utilisateur ADD version BIGINT NOT NULL DEFAULT 0;
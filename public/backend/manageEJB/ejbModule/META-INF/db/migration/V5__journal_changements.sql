@@ -0,0 +1,16 @@
+-- Journal des changements (outbox) lu par GET /projets/changes.
+-- seq est attribué par la ligne 'Changement' de sequence_id : numéros sans trou, dans l'ordre des commits.
+-- Depuis V7, les écrivains ne prennent plus cette ligne : seq est attribué après le commit par la tâche
+-- de numérotation (FluxChangements).
+
+CREATE TABLE journal_changement (
+    seq BIGINT NOT NULL PRIMARY KEY,
+    type VARCHAR(12) NOT NULL,
+    entite VARCHAR(12) NOT NULL,
+    entiteId BIGINT NOT NULL,
+    horodatage TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_changement_horodatage ON journal_changement (horodatage);
+
+INSERT INTO sequence_id (nom_sequence, valeur) VALUES ('Changement', 0);
@@ -0,0 +1,14 @@
+-- Compteurs de projets dénormalisés sur Utilisateur (GET /utilisateurs sans lire Projet),
+-- tenus à jour par ProjetManagerImpl ; POST /utilisateurs/compteurs/recalcul les répare.
+-- Statuts en base : 'C' en cours, 'T' terminé, 'A' en attente (V3).
+
+ALTER TABLE Utilisateur ADD nbProjets BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE Utilisateur ADD nbProjetsEnCours BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE Utilisateur ADD nbProjetsTermines BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE Utilisateur ADD nbProjetsEnAttente BIGINT NOT NULL DEFAULT 0;
+
+UPDATE Utilisateur SET
+    nbProjets = (SELECT COUNT(*) FROM Projet p WHERE p.utilisateur_id = Utilisateur.id),
+    nbProjetsEnCours = (SELECT COUNT(*) FROM Projet p WHERE p.utilisateur_id = Utilisateur.id AND p.statut = 'C'),
+    nbProjetsTermines = (SELECT COUNT(*) FROM Projet p WHERE p.utilisateur_id = Utilisateur.id AND p.statut = 'T'),
+    nbProjetsEnAttente = (SELECT COUNT(*) FROM Projet p WHERE p.utilisateur_id = Utilisateur.id AND p.statut = 'A');
@@ -0,0 +1,28 @@
+-- Journal des changements : l'écrivain n'insère plus qu'une ligne, identifiée par id (blocs de 50
+-- sur la ligne 'ChangementId' de sequence_id), sans verrouiller la ligne 'Changement'.
+-- seq reste sans trou : il est attribué après le commit par la tâche planifiée de FluxChangements,
+-- seule à avancer la ligne 'Changement'. seq est NULL tant que l'événement n'est pas numéroté ;
+-- la purge ne supprime que des événements numérotés.
+-- Les événements existants gardent leur seq, qui leur sert aussi d'id.
+
+CREATE TABLE journal_changement_v7 (
+    id BIGINT NOT NULL PRIMARY KEY,
+    seq BIGINT,
+    type VARCHAR(12) NOT NULL,
+    entite VARCHAR(12) NOT NULL,
+    entiteId BIGINT NOT NULL,
+    horodatage TIMESTAMP NOT NULL
+);
+
+INSERT INTO journal_changement_v7 (id, seq, type, entite, entiteId, horodatage)
+SELECT seq, seq, type, entite, entiteId, horodatage FROM journal_changement;
+
+INSERT INTO sequence_id (nom_sequence, valeur)
+SELECT 'ChangementId', COALESCE(MAX(seq), 0) + 51 FROM journal_changement;
+
+DROP TABLE journal_changement;
+
+ALTER TABLE journal_changement_v7 RENAME TO journal_changement;
+
+CREATE INDEX idx_changement_horodatage ON journal_changement (horodatage);
+CREATE UNIQUE INDEX idx_changement_seq ON journal_changement (seq);
@@ -0,0 +1,35 @@
+package metier;
+
+/**
+ * Graphes de chargement proposés aux appelants de ProjetManager
+ * (voir les @NamedEntityGraph de Projet et Utilisateur).
+ * Les associations hors graphe restent non chargées : l'entité renvoyée ne doit pas
+ * les parcourir en dehors de la transaction.
+ */
+public enum GrapheChargement {
+
+    // Attributs simples uniquement, aucune association
+    SUMMARY("summary"),
+    // Projet avec son propriétaire, chargé par jointure
+    WITH_OWNER("withOwner"),
+    // Utilisateur avec sa collection de projets
+    WITH_PROJECTS("withProjects");
+
+    private final String suffixe;
+
+    GrapheChargement(String suffixe) {
+        this.suffixe = suffixe;
+    }
+
+    // Nom du @NamedEntityGraph correspondant pour l'entité donnée, ex. "Projet.withOwner"
+    public String nomPour(Class<?> entite) {
+        boolean applicable = this == SUMMARY
+                || (this == WITH_OWNER && "Projet".equals(entite.getSimpleName()))
+                || (this == WITH_PROJECTS && "Utilisateur".equals(entite.getSimpleName()));
+        if (!applicable) {
+            throw new IllegalArgumentException(
+                "Le graphe " + name() + " ne s'applique pas à " + entite.getSimpleName());
+        }
+        return entite.getSimpleName() + "." + suffixe;
+    }
+}
@@ -1,60 +1,141 @@
 package metier;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import jakarta.ejb.Local;
+import metier.dto.Estampille;
+import metier.dto.ModificationProjet;
+import metier.dto.Page;
+import metier.dto.ProjetFilter;
+import metier.dto.ProjetSummary;
+import metier.dto.ResultatImport;
+import metier.dto.TableauDeBord;
+import metier.entities.Changement;
 import metier.entities.Projet;
+import metier.entities.StatutProjet;
 import metier.entities.Utilisateur;
 
 @Local
 public interface ProjetManager {
+    // Taille maximale d'une page pour les listes paginées
+    int TAILLE_PAGE_MAX = 500;
+
+    // Nombre maximal de projets par appel à creerProjets
+    int TAILLE_IMPORT_MAX = 10_000;
+
     // CRUD Projet
     void creerProjet(Projet projet);
+    // Import en masse : un résultat par projet, dans l'ordre de la liste reçue
+    List<ResultatImport> creerProjets(List<Projet> projets);
     Projet trouverProjetParId(Long id);
-    List<Projet> listerTousLesProjets();
-    List<Projet> listerProjetsParTechnologie(String technologie);
+    List<ProjetSummary> listerTousLesProjets();
+    List<ProjetSummary> listerProjetsParTechnologie(String technologie);
     void mettreAJourProjet(Projet projet);
+
+    // Applique les seuls champs fournis ; null si le projet n'existe pas. La version est obligatoire
+    // (IllegalArgumentException sinon) : OptimisticLockException si elle n'est plus celle en base
+    Projet modifierProjet(Long id, ModificationProjet modification);
     void supprimerProjet(Long id);
     
-    // CRUD Utilisateur
+    // CRUD Utilisateur. L'inscription attribue toujours Utilisateur.ROLE_UTILISATEUR ; les mises à jour
+    // ignorent le rôle reçu sauf si roleModifiable (appelant administrateur)
     void inscrireUtilisateur(Utilisateur utilisateur);
     Utilisateur trouverUtilisateurParEmail(String email);
-    void mettreAJourUtilisateur(Utilisateur utilisateur);
+    void mettreAJourUtilisateur(Utilisateur utilisateur, boolean roleModifiable);
     void supprimerUtilisateur(Long id);
     
     // Liste tous les utilisateurs
     List<Utilisateur> listerTousLesUtilisateurs();
-    
+
+    // Recalcule depuis Projet les compteurs de projets de chaque utilisateur ; retourne le nombre de lignes corrigées
+    int recalculerCompteursUtilisateurs();
+
     // Trouve un utilisateur par son ID
     Utilisateur trouverUtilisateurParId(Long id);
     
     // *** Ajout de la méthode de login ***
+    // Retourne un Utilisateur détaché (id, nom, email, role) ou null si les identifiants sont refusés
     Utilisateur connecterUtilisateur(String email, String mot_de_passe);
     
     // ===== AJOUT =====
     Map<String, Long> stat();
     
-    // Liste des projets en cours
-    List<Projet> listerProjetsEnCours();
+    // Nombre de projets par statut (compteurs en mémoire)
+    Map<String, Long> statParStatut();
 
-    // Liste des projets terminés
-    List<Projet> listerProjetsTermines();
-
-    // Liste des projets en attente
-    List<Projet> listerProjetsEnAttente();
+    // Avance à chaque changement de stat() ou statParStatut()
+    long revisionStatistiques();
+    
+    // Liste des projets ayant un statut donné (en cours, terminés, en attente)
+    List<ProjetSummary> listerProjetsParStatut(StatutProjet statut);
     
     // get les projets par utilisateur 
-    List<Projet> getProjetsByUserId(Long userId);
+    List<ProjetSummary> getProjetsByUserId(Long userId);
     
  // Trouve les projets d'un utilisateur par statut
-    List<Projet> getProjetsByUserAndStatut(Long userId, String statut);
-    List<Projet> getProjetsEnCoursByUser(Long userId);
-    List<Projet> getProjetsTerminesByUser(Long userId);
-    List<Projet> getProjetsEnAttenteByUser(Long userId);
+    List<ProjetSummary> getProjetsByUserAndStatut(Long userId, StatutProjet statut);
     
     //mise a jour par id 
-    Utilisateur mettreAJourUtilisateurParId(Long id, Utilisateur utilisateurModifie);
+    Utilisateur mettreAJourUtilisateurParId(Long id, Utilisateur utilisateurModifie, boolean roleModifiable);
+    
+    // Les listes renvoient des ProjetSummary (projection JPQL, sans entité)
+    // Variantes paginées par curseur (keyset sur l'id) :
+    // after = dernier id déjà lu (null pour la première page), limit plafonné à TAILLE_PAGE_MAX
+    Page<ProjetSummary> listerTousLesProjets(Long after, int limit);
+    Page<ProjetSummary> listerProjetsParTechnologie(String technologie, Long after, int limit);
+    Page<ProjetSummary> listerProjetsParStatut(StatutProjet statut, Long after, int limit);
+    Page<ProjetSummary> getProjetsByUserId(Long userId, Long after, int limit);
+    Page<ProjetSummary> getProjetsByUserAndStatut(Long userId, StatutProjet statut, Long after, int limit);
+    
+    // Parcourt tous les projets (triés par id) en flux, par lots de tailleLot,
+    // sans jamais matérialiser la liste complète
+    void exporterProjets(int tailleLot, Consumer<Projet> consommateur);
+    
+    // Compteurs par statut, technologie et statut × technologie en un seul GROUP BY,
+    // limités aux projets de userId si non null
+    TableauDeBord tableauDeBord(Long userId);
+    
+    // Compteurs (succès, échecs, évictions...) des caches de lecture par id
+    Map<String, Map<String, Long>> statistiquesCache();
+
+    // Recherche plein texte (titre, technologie, description) : tous les mots, préfixes acceptés,
+    // par pertinence décroissante ; nextCursor est l'offset de la page suivante
+    Page<ProjetSummary> rechercherProjets(String requete, int offset, int limit);
+
+    // Combinaison libre de critères (voir ProjetFilter) ; nextCursor est l'offset de la page suivante
+    Page<ProjetSummary> rechercher(ProjetFilter filtre);
+
+    // Opérations groupées sur les projets désignés par le filtre (ids et/ou critères, au moins un) : la sélection
+    // est verrouillée (PESSIMISTIC_WRITE) puis modifiée par id ; renvoient le nombre de projets touchés.
+    // dateTerminaison vaut aujourd'hui par défaut pour TERMINE
+    int changerStatut(ProjetFilter filtre, StatutProjet statut, LocalDate dateTerminaison);
+
+    int supprimerProjets(ProjetFilter filtre);
+
+    // Journal des changements : événements de numéro supérieur à depuis, dans l'ordre ; un événement
+    // est numéroté en tâche de fond, au plus une seconde après son commit
+    List<Changement> changements(long depuis, int limit);
+
+    // Terminée quand un événement plus récent que depuis est numéroté (par cette instance) ;
+    // l'appelant l'annule s'il n'attend finalement pas, sinon elle reste inscrite jusque-là
+    CompletableFuture<Void> attendreChangement(long depuis);
+
+    // Estampilles des collections, tirées de la tête du journal des changements (persistée, commune
+    // aux instances) : avancent à chaque écriture validée (ETag / Last-Modified des listes)
+    Estampille estampilleProjets();
+
+    Estampille estampilleUtilisateurs();
+    
+    // Chargement d'entités avec un graphe choisi par l'appelant (un nombre de requêtes borné) ;
+    // ces méthodes contournent les caches de lecture
+    Projet chargerProjet(Long id, GrapheChargement graphe);
+    Page<Projet> listerProjets(Long after, int limit, GrapheChargement graphe);
+    Utilisateur chargerUtilisateur(Long id, GrapheChargement graphe);
+    List<Utilisateur> listerTousLesUtilisateurs(GrapheChargement graphe);
 
 
 }
\ No newline at end of file
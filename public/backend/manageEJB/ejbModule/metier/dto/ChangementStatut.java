@@ -0,0 +1,49 @@
+package metier.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.json.bind.annotation.JsonbDateFormat;
+import metier.entities.StatutProjet;
+
+/**
+ * Corps de POST /projets/batch/statut : nouveau statut des projets désignés par le filtre.
+ */
+public class ChangementStatut implements Serializable {
+
+	private ProjetFilter filtre;
+	private StatutProjet statut;
+
+	@JsonbDateFormat("yyyy-MM-dd")
+	private LocalDate dateTerminaison;
+
+	private static final long serialVersionUID = 1L;
+
+	public ChangementStatut() {
+		super();
+	}
+
+	public ProjetFilter getFiltre() {
+		return filtre;
+	}
+
+	public void setFiltre(ProjetFilter filtre) {
+		this.filtre = filtre;
+	}
+
+	public StatutProjet getStatut() {
+		return statut;
+	}
+
+	public void setStatut(StatutProjet statut) {
+		this.statut = statut;
+	}
+
+	public LocalDate getDateTerminaison() {
+		return dateTerminaison;
+	}
+
+	public void setDateTerminaison(LocalDate dateTerminaison) {
+		this.dateTerminaison = dateTerminaison;
+	}
+}
@@ -0,0 +1,30 @@
+package metier.dto;
+
+import java.io.Serializable;
+
+/**
+ * État d'une collection (projets, utilisateurs) à un instant : valeur opaque qui change
+ * à chaque écriture validée, et date de la dernière écriture connue (0 si inconnue).
+ * Sert d'ETag et de Last-Modified aux listes REST.
+ */
+public class Estampille implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String valeur;
+    private final long derniereModification;
+
+    public Estampille(String valeur, long derniereModification) {
+        this.valeur = valeur;
+        this.derniereModification = derniereModification;
+    }
+
+    public String getValeur() {
+        return valeur;
+    }
+
+    // Millisecondes depuis l'epoch
+    public long getDerniereModification() {
+        return derniereModification;
+    }
+}
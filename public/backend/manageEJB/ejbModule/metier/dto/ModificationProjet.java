@@ -0,0 +1,89 @@
+package metier.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.json.bind.annotation.JsonbDateFormat;
+import metier.entities.StatutProjet;
+
+/**
+ * Modification partielle d'un Projet (PATCH) : seuls les champs non null sont appliqués.
+ * La version est obligatoire et doit être celle en base, sinon la modification est refusée.
+ */
+public class ModificationProjet implements Serializable {
+
+	private String titre;
+	private String description;
+	private String technologie;
+
+	@JsonbDateFormat("yyyy-MM-dd")
+	private LocalDate dateCreation;
+
+	@JsonbDateFormat("yyyy-MM-dd")
+	private LocalDate dateTerminaison;
+
+	private StatutProjet statut;
+	private Long version;
+
+	private static final long serialVersionUID = 1L;
+
+	public ModificationProjet() {
+		super();
+	}
+
+	public String getTitre() {
+		return titre;
+	}
+
+	public void setTitre(String titre) {
+		this.titre = titre;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public String getTechnologie() {
+		return technologie;
+	}
+
+	public void setTechnologie(String technologie) {
+		this.technologie = technologie;
+	}
+
+	public LocalDate getDateCreation() {
+		return dateCreation;
+	}
+
+	public void setDateCreation(LocalDate dateCreation) {
+		this.dateCreation = dateCreation;
+	}
+
+	public LocalDate getDateTerminaison() {
+		return dateTerminaison;
+	}
+
+	public void setDateTerminaison(LocalDate dateTerminaison) {
+		this.dateTerminaison = dateTerminaison;
+	}
+
+	public StatutProjet getStatut() {
+		return statut;
+	}
+
+	public void setStatut(StatutProjet statut) {
+		this.statut = statut;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+}
@@ -0,0 +1,41 @@
+package metier.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Page d'une liste paginée par curseur (keyset sur l'id).
+ * nextCursor vaut null quand il n'y a plus d'éléments à lire.
+ */
+public class Page<T> implements Serializable {
+
+	private List<T> items;
+	private Long nextCursor;
+
+	private static final long serialVersionUID = 1L;
+
+	public Page() {
+		super();
+	}
+
+	public Page(List<T> items, Long nextCursor) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getItems() {
+		return this.items;
+	}
+
+	public void setItems(List<T> items) {
+		this.items = items;
+	}
+
+	public Long getNextCursor() {
+		return this.nextCursor;
+	}
+
+	public void setNextCursor(Long nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
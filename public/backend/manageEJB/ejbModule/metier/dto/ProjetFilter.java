@@ -0,0 +1,133 @@
+package metier.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import jakarta.json.bind.annotation.JsonbDateFormat;
+import metier.entities.StatutProjet;
+
+/**
+ * Critères combinables de ProjetManager.rechercher, changerStatut et supprimerProjets : chaque critère
+ * renseigné restreint la sélection (ET entre critères, OU à l'intérieur d'un ensemble). Bornes de dates incluses.
+ * tri : id, titre, dateCreation, dateTerminaison, statut ou technologie, préfixé de "-" pour l'ordre
+ * décroissant ; à valeur égale les projets sont ordonnés par id.
+ */
+public class ProjetFilter implements Serializable {
+
+	private Set<Long> ids = new LinkedHashSet<>();
+	private Long userId;
+	private Set<StatutProjet> statuts = new LinkedHashSet<>();
+	private Set<String> technologies = new LinkedHashSet<>();
+
+	@JsonbDateFormat("yyyy-MM-dd")
+	private LocalDate creeApres;
+
+	@JsonbDateFormat("yyyy-MM-dd")
+	private LocalDate creeAvant;
+
+	@JsonbDateFormat("yyyy-MM-dd")
+	private LocalDate termineApres;
+
+	@JsonbDateFormat("yyyy-MM-dd")
+	private LocalDate termineAvant;
+
+	private String tri;
+	private int offset;
+	private int limit;
+
+	private static final long serialVersionUID = 1L;
+
+	public ProjetFilter() {
+		super();
+	}
+
+	public Set<Long> getIds() {
+		return ids;
+	}
+
+	public void setIds(Set<Long> ids) {
+		this.ids = ids;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Long userId) {
+		this.userId = userId;
+	}
+
+	public Set<StatutProjet> getStatuts() {
+		return statuts;
+	}
+
+	public void setStatuts(Set<StatutProjet> statuts) {
+		this.statuts = statuts;
+	}
+
+	public Set<String> getTechnologies() {
+		return technologies;
+	}
+
+	public void setTechnologies(Set<String> technologies) {
+		this.technologies = technologies;
+	}
+
+	public LocalDate getCreeApres() {
+		return creeApres;
+	}
+
+	public void setCreeApres(LocalDate creeApres) {
+		this.creeApres = creeApres;
+	}
+
+	public LocalDate getCreeAvant() {
+		return creeAvant;
+	}
+
+	public void setCreeAvant(LocalDate creeAvant) {
+		this.creeAvant = creeAvant;
+	}
+
+	public LocalDate getTermineApres() {
+		return termineApres;
+	}
+
+	public void setTermineApres(LocalDate termineApres) {
+		this.termineApres = termineApres;
+	}
+
+	public LocalDate getTermineAvant() {
+		return termineAvant;
+	}
+
+	public void setTermineAvant(LocalDate termineAvant) {
+		this.termineAvant = termineAvant;
+	}
+
+	public String getTri() {
+		return tri;
+	}
+
+	public void setTri(String tri) {
+		this.tri = tri;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public void setOffset(int offset) {
+		this.offset = offset;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+}
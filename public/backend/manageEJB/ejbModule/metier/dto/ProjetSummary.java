@@ -0,0 +1,126 @@
+package metier.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.json.bind.annotation.JsonbDateFormat;
+import metier.entities.StatutProjet;
+
+/**
+ * Vue allégée d'un Projet pour les listes : propriétaire réduit à son id et son nom, sans version.
+ * La description reste : le tableau des projets du frontend filtre sa recherche dessus.
+ * Construite directement par les requêtes JPQL (SELECT new ...), sans charger d'entité.
+ */
+public class ProjetSummary implements Serializable {
+
+	// Début commun des requêtes de liste ; le propriétaire est joint une seule fois
+	public static final String SELECT = "SELECT new metier.dto.ProjetSummary(p.id, p.titre, p.description, p.statut,"
+			+ " p.technologie, p.dateCreation, p.dateTerminaison, u.id, u.nom)"
+			+ " FROM Projet p LEFT JOIN p.utilisateur u";
+
+	private Long id;
+	private String titre;
+	private String description;
+	private StatutProjet statut;
+	private String technologie;
+
+	@JsonbDateFormat("yyyy-MM-dd")
+	private LocalDate dateCreation;
+
+	@JsonbDateFormat("yyyy-MM-dd")
+	private LocalDate dateTerminaison;
+
+	private Long utilisateurId;
+	private String utilisateurNom;
+
+	private static final long serialVersionUID = 1L;
+
+	public ProjetSummary() {
+		super();
+	}
+
+	public ProjetSummary(Long id, String titre, String description, StatutProjet statut, String technologie,
+			LocalDate dateCreation, LocalDate dateTerminaison, Long utilisateurId, String utilisateurNom) {
+		this.id = id;
+		this.titre = titre;
+		this.description = description;
+		this.statut = statut;
+		this.technologie = technologie;
+		this.dateCreation = dateCreation;
+		this.dateTerminaison = dateTerminaison;
+		this.utilisateurId = utilisateurId;
+		this.utilisateurNom = utilisateurNom;
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getTitre() {
+		return this.titre;
+	}
+
+	public void setTitre(String titre) {
+		this.titre = titre;
+	}
+
+	public String getDescription() {
+		return this.description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public StatutProjet getStatut() {
+		return this.statut;
+	}
+
+	public void setStatut(StatutProjet statut) {
+		this.statut = statut;
+	}
+
+	public String getTechnologie() {
+		return this.technologie;
+	}
+
+	public void setTechnologie(String technologie) {
+		this.technologie = technologie;
+	}
+
+	public LocalDate getDateCreation() {
+		return this.dateCreation;
+	}
+
+	public void setDateCreation(LocalDate dateCreation) {
+		this.dateCreation = dateCreation;
+	}
+
+	public LocalDate getDateTerminaison() {
+		return this.dateTerminaison;
+	}
+
+	public void setDateTerminaison(LocalDate dateTerminaison) {
+		this.dateTerminaison = dateTerminaison;
+	}
+
+	public Long getUtilisateurId() {
+		return this.utilisateurId;
+	}
+
+	public void setUtilisateurId(Long utilisateurId) {
+		this.utilisateurId = utilisateurId;
+	}
+
+	public String getUtilisateurNom() {
+		return this.utilisateurNom;
+	}
+
+	public void setUtilisateurNom(String utilisateurNom) {
+		this.utilisateurNom = utilisateurNom;
+	}
+}
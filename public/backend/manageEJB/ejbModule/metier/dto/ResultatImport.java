@@ -0,0 +1,72 @@
+package metier.dto;
+
+import java.io.Serializable;
+
+/**
+ * Résultat de l'import d'un projet dans un lot (ProjetManager.creerProjets).
+ */
+public class ResultatImport implements Serializable {
+
+	public static final String CREE = "CREE";
+	public static final String REJETE = "REJETE";
+
+	// Position du projet dans le lot reçu
+	private int index;
+	private Long id;
+	private String statut;
+	private String message;
+
+	private static final long serialVersionUID = 1L;
+
+	public ResultatImport() {
+		super();
+	}
+
+	public static ResultatImport cree(int index, Long id) {
+		ResultatImport r = new ResultatImport();
+		r.index = index;
+		r.id = id;
+		r.statut = CREE;
+		return r;
+	}
+
+	public static ResultatImport rejete(int index, String message) {
+		ResultatImport r = new ResultatImport();
+		r.index = index;
+		r.statut = REJETE;
+		r.message = message;
+		return r;
+	}
+
+	public int getIndex() {
+		return this.index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getStatut() {
+		return this.statut;
+	}
+
+	public void setStatut(String statut) {
+		this.statut = statut;
+	}
+
+	public String getMessage() {
+		return this.message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
@@ -0,0 +1,70 @@
+package metier.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.TreeMap;
+
+import metier.entities.StatutProjet;
+
+/**
+ * Compteurs du tableau de bord : par statut, par technologie et par couple statut × technologie.
+ * Construit à partir d'un seul GROUP BY (statut, technologie).
+ */
+public class TableauDeBord implements Serializable {
+
+	// Clé utilisée quand le statut ou la technologie n'est pas renseigné en base
+	public static final String NON_RENSEIGNE = "INCONNU";
+
+	private long total;
+	private Map<String, Long> parStatut = new TreeMap<>();
+	private Map<String, Long> parTechnologie = new TreeMap<>();
+	private Map<String, Map<String, Long>> parStatutEtTechnologie = new TreeMap<>();
+
+	private static final long serialVersionUID = 1L;
+
+	public TableauDeBord() {
+		super();
+	}
+
+	// Cumule une ligne du GROUP BY dans les trois répartitions
+	public void ajouter(StatutProjet statut, String technologie, long nombre) {
+		String s = statut == null ? NON_RENSEIGNE : statut.name();
+		String t = technologie == null ? NON_RENSEIGNE : technologie;
+		this.total += nombre;
+		this.parStatut.merge(s, nombre, Long::sum);
+		this.parTechnologie.merge(t, nombre, Long::sum);
+		this.parStatutEtTechnologie.computeIfAbsent(s, k -> new TreeMap<>()).merge(t, nombre, Long::sum);
+	}
+
+	public long getTotal() {
+		return this.total;
+	}
+
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	public Map<String, Long> getParStatut() {
+		return this.parStatut;
+	}
+
+	public void setParStatut(Map<String, Long> parStatut) {
+		this.parStatut = parStatut;
+	}
+
+	public Map<String, Long> getParTechnologie() {
+		return this.parTechnologie;
+	}
+
+	public void setParTechnologie(Map<String, Long> parTechnologie) {
+		this.parTechnologie = parTechnologie;
+	}
+
+	public Map<String, Map<String, Long>> getParStatutEtTechnologie() {
+		return this.parStatutEtTechnologie;
+	}
+
+	public void setParStatutEtTechnologie(Map<String, Map<String, Long>> parStatutEtTechnologie) {
+		this.parStatutEtTechnologie = parStatutEtTechnologie;
+	}
+}
@@ -0,0 +1,121 @@
+package metier.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import jakarta.json.bind.annotation.JsonbTransient;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+
+/**
+ * Événement du journal des changements (outbox), écrit dans la transaction de la modification.
+ * Compact : le consommateur relit l'entité s'il a besoin de son contenu.
+ * L'écrivain n'insère que la ligne (id pris dans un bloc, sans verrou partagé) ; seq, sans trou,
+ * est attribué après le commit par FluxChangements.numeroter, dans l'ordre de numérotation.
+ */
+@Entity
+@Table(name = "journal_changement",
+	indexes = {
+		@Index(name = "idx_changement_horodatage", columnList = "horodatage"),
+		@Index(name = "idx_changement_seq", columnList = "seq", unique = true)
+	})
+public class Changement implements Serializable {
+
+	public enum Type { CREATION, MODIFICATION, SUPPRESSION }
+
+	public enum Entite { PROJET, UTILISATEUR }
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "changement_id")
+	@TableGenerator(name = "changement_id", table = "sequence_id", pkColumnName = "nom_sequence",
+		valueColumnName = "valeur", pkColumnValue = "ChangementId", allocationSize = 50)
+	private Long id;
+
+	// null tant que l'événement n'est pas numéroté
+	private Long seq;
+
+	@Enumerated(EnumType.STRING)
+	@Column(length = 12, nullable = false)
+	private Type type;
+
+	@Enumerated(EnumType.STRING)
+	@Column(length = 12, nullable = false)
+	private Entite entite;
+
+	@Column(nullable = false)
+	private Long entiteId;
+
+	@Column(nullable = false)
+	private Instant horodatage;
+
+	private static final long serialVersionUID = 1L;
+
+	public Changement() {
+		super();
+	}
+
+	public Changement(Type type, Entite entite, Long entiteId, Instant horodatage) {
+		this.type = type;
+		this.entite = entite;
+		this.entiteId = entiteId;
+		this.horodatage = horodatage;
+	}
+
+	// Technique, jamais renvoyé : les lecteurs ne connaissent que seq
+	@JsonbTransient
+	public Long getId() {
+		return this.id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getSeq() {
+		return this.seq;
+	}
+
+	public void setSeq(Long seq) {
+		this.seq = seq;
+	}
+
+	public Type getType() {
+		return this.type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public Entite getEntite() {
+		return this.entite;
+	}
+
+	public void setEntite(Entite entite) {
+		this.entite = entite;
+	}
+
+	public Long getEntiteId() {
+		return this.entiteId;
+	}
+
+	public void setEntiteId(Long entiteId) {
+		this.entiteId = entiteId;
+	}
+
+	public Instant getHorodatage() {
+		return this.horodatage;
+	}
+
+	public void setHorodatage(Instant horodatage) {
+		this.horodatage = horodatage;
+	}
+}
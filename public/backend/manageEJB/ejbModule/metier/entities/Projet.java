@@ -5,26 +5,55 @@ import java.lang.Long;
 import java.lang.String;
 
 import jakarta.json.bind.annotation.JsonbDateFormat;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import java.time.LocalDate;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 
 /**
  * Entity implementation class for Entity: Projet
  *
  */
 @Entity
-
+// Graphes de chargement sélectionnables via metier.GrapheChargement
+@NamedEntityGraph(name = "Projet.summary")
+@NamedEntityGraph(name = "Projet.withOwner", attributeNodes = @NamedAttributeNode("utilisateur"))
+// Index alignés sur les filtres de ProjetManagerImpl (voir META-INF/db/migration).
+// L'index (utilisateur_id, statut) sert aussi les recherches sur utilisateur_id seul.
+@Table(name = "Projet",
+	indexes = {
+		@Index(name = "idx_projet_statut", columnList = "statut"),
+		@Index(name = "idx_projet_technologie", columnList = "technologie"),
+		@Index(name = "idx_projet_utilisateur_statut", columnList = "utilisateur_id, statut")
+	},
+	uniqueConstraints = @UniqueConstraint(name = "uk_projet_titre", columnNames = "titre"))
+// UPDATE limité aux colonnes modifiées (PATCH /projets/{id} n'en change souvent qu'une)
+@DynamicUpdate
 public class Projet implements Serializable {
 
 	   
+	// Identifiants réservés par blocs de 50 : permet le batching JDBC des insertions
+	// (impossible avec IDENTITY, qui impose un INSERT immédiat par ligne)
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "projet_id")
+	@TableGenerator(name = "projet_id", table = "sequence_id", pkColumnName = "nom_sequence",
+		valueColumnName = "valeur", pkColumnValue = "Projet", allocationSize = 50)
 	private Long id;
 	private String titre;
 	private String description;
@@ -35,11 +64,19 @@ public class Projet implements Serializable {
 	
 	@JsonbDateFormat("yyyy-MM-dd")
 	private LocalDate dateTerminaison;
-	private String statut;
+
+	@Convert(converter = StatutProjetConverter.class)
+	@Column(length = 1)
+	private StatutProjet statut;
 	
-	@ManyToOne
+	// LAZY : le propriétaire n'est chargé qu'à la demande (graphe Projet.withOwner ou JOIN FETCH)
+	@ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "utilisateur_id")
     private Utilisateur utilisateur;
+
+	// Verrouillage optimiste ; sert aussi d'ETag à GET /projets/{id}
+	@Version
+	private Long version;
 	
 	private static final long serialVersionUID = 1L;
 
@@ -88,11 +125,11 @@ public class Projet implements Serializable {
 	public void setDateTerminaison(LocalDate dateTerminaison) {
 		this.dateTerminaison = dateTerminaison;
 	}   
-	public String getStatut() {
+	public StatutProjet getStatut() {
 		return this.statut;
 	}
 
-	public void setStatut(String statut) {
+	public void setStatut(StatutProjet statut) {
 		this.statut = statut;
 	}   
 	public Utilisateur getUtilisateur() {
@@ -103,5 +140,13 @@ public class Projet implements Serializable {
         this.utilisateur = utilisateur;
     }
 
+	public Long getVersion() {
+		return this.version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
    
 }
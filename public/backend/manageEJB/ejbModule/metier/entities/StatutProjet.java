@@ -0,0 +1,46 @@
+package metier.entities;
+
+import java.util.Arrays;
+
+/**
+ * Statuts possibles d'un projet. En base, chaque statut occupe un seul caractère
+ * (voir StatutProjetConverter) ; en JSON, il garde son nom (EN_COURS, TERMINE, EN_ATTENTE).
+ */
+public enum StatutProjet {
+
+	EN_COURS('C'),
+	TERMINE('T'),
+	EN_ATTENTE('A');
+
+	private final char code;
+
+	StatutProjet(char code) {
+		this.code = code;
+	}
+
+	public char getCode() {
+		return this.code;
+	}
+
+	public static StatutProjet depuisCode(char code) {
+		for (StatutProjet statut : values()) {
+			if (statut.code == code) {
+				return statut;
+			}
+		}
+		throw new IllegalArgumentException("Code de statut inconnu : '" + code + "'");
+	}
+
+	// Lecture d'un statut reçu d'un client (paramètre d'URL...), insensible à la casse
+	public static StatutProjet depuisLibelle(String libelle) {
+		if (libelle != null) {
+			for (StatutProjet statut : values()) {
+				if (statut.name().equalsIgnoreCase(libelle.trim())) {
+					return statut;
+				}
+			}
+		}
+		throw new IllegalArgumentException("Statut invalide : '" + libelle
+			+ "' (valeurs acceptées : " + Arrays.toString(values()) + ")");
+	}
+}
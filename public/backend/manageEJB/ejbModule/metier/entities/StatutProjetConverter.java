@@ -0,0 +1,21 @@
+package metier.entities;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stocke StatutProjet sur une colonne CHAR(1).
+ */
+@Converter
+public class StatutProjetConverter implements AttributeConverter<StatutProjet, String> {
+
+	@Override
+	public String convertToDatabaseColumn(StatutProjet statut) {
+		return statut == null ? null : String.valueOf(statut.getCode());
+	}
+
+	@Override
+	public StatutProjet convertToEntityAttribute(String code) {
+		return code == null || code.isEmpty() ? null : StatutProjet.depuisCode(code.charAt(0));
+	}
+}
@@ -5,21 +5,37 @@ import java.lang.Long;
 import java.lang.String;
 import java.util.List;
 
+import jakarta.json.bind.annotation.JsonbTransient;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import jakarta.xml.bind.annotation.XmlTransient;
+
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Entity implementation class for Entity: Utilisateur
  *
  */
 @Entity
-
+// Graphes de chargement sélectionnables via metier.GrapheChargement
+@NamedEntityGraph(name = "Utilisateur.summary")
+@NamedEntityGraph(name = "Utilisateur.withProjects", attributeNodes = @NamedAttributeNode("projets"))
+@Table(name = "Utilisateur",
+	uniqueConstraints = @UniqueConstraint(name = "uk_utilisateur_email", columnNames = "email"))
 public class Utilisateur implements Serializable {
 
+	// Rôle attribué à l'inscription ; seul un administrateur peut en changer (voir ProjetManager)
+	public static final String ROLE_UTILISATEUR = "user";
 	   
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,6 +47,30 @@ public class Utilisateur implements Serializable {
 	
 	@OneToMany(mappedBy = "utilisateur", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Projet> projets;
+
+	// Verrouillage optimiste ; sert aussi d'ETag à GET /utilisateurs/{id}
+	@Version
+	private Long version;
+
+	// Compteurs de projets dénormalisés (migration V6), tenus par ProjetManagerImpl dans la transaction
+	// de chaque écriture de projet, sans charger la collection projets. Jamais écrits par
+	// persist/merge : la valeur reçue d'un client est ignorée. null sur les copies partielles (propriétaire
+	// imbriqué d'un projet, résultat de connexion) : omis du JSON plutôt que renvoyés à 0
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private Long nbProjets;
+
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private Long nbProjetsEnCours;
+
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private Long nbProjetsTermines;
+
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private Long nbProjetsEnAttente;
 	
 	private static final long serialVersionUID = 1L;
 
@@ -58,6 +98,8 @@ public class Utilisateur implements Serializable {
 	public void setEmail(String email) {
 		this.email = email;
 	}   
+	// Lu à l'inscription et à la connexion, jamais renvoyé (empreinte PBKDF2 en base)
+	@JsonbTransient
 	public String getMot_de_passe() {
 		return this.mot_de_passe;
 	}
@@ -72,5 +114,52 @@ public class Utilisateur implements Serializable {
 	public void setRole(String role) {
 		this.role = role;
 	}
+
+	public Long getVersion() {
+		return this.version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Long getNbProjets() {
+		return this.nbProjets;
+	}
+
+	public void setNbProjets(Long nbProjets) {
+		this.nbProjets = nbProjets;
+	}
+
+	public Long getNbProjetsEnCours() {
+		return this.nbProjetsEnCours;
+	}
+
+	public void setNbProjetsEnCours(Long nbProjetsEnCours) {
+		this.nbProjetsEnCours = nbProjetsEnCours;
+	}
+
+	public Long getNbProjetsTermines() {
+		return this.nbProjetsTermines;
+	}
+
+	public void setNbProjetsTermines(Long nbProjetsTermines) {
+		this.nbProjetsTermines = nbProjetsTermines;
+	}
+
+	public Long getNbProjetsEnAttente() {
+		return this.nbProjetsEnAttente;
+	}
+
+	public void setNbProjetsEnAttente(Long nbProjetsEnAttente) {
+		this.nbProjetsEnAttente = nbProjetsEnAttente;
+	}
+
+	// Jamais sérialisé : la collection n'est chargée qu'avec le graphe Utilisateur.withProjects
+	@JsonbTransient
+	@XmlTransient
+	public List<Projet> getProjets() {
+		return this.projets;
+	}
    
 }
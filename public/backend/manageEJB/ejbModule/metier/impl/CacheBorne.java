@@ -0,0 +1,344 @@
+package metier.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Cache LRU borné en taille, avec expiration des entrées après un délai (TTL).
+ * Les valeurs doivent être immuables : on ne stocke jamais d'entités gérées.
+ * Découpé en segments verrouillés séparément, chacun LRU sur sa part de la taille : l'ordre
+ * d'éviction n'est qu'approché à l'échelle du cache, les lectures de clés différentes ne se bloquent pas.
+ * Le chargement se fait hors verrou ; une invalidation de la clé (ou de son groupe) survenue pendant
+ * le chargement empêche d'insérer la valeur lue (elle peut être antérieure à l'écriture).
+ * Le groupe, facultatif, est une clé secondaire indexée (le propriétaire d'un projet par exemple) :
+ * invaliderGroupe retire ses entrées sans parcourir le cache.
+ */
+public class CacheBorne<K, V> {
+
+    // Au-delà, les segments seraient trop petits pour que leur LRU approche celui du cache entier
+    private static final int SEGMENTS_MAX = 16;
+    private static final int TAILLE_SEGMENT_MIN = 64;
+
+    private static final class Entree<V> {
+        final V valeur;
+        final long expireA;
+        final Object groupe;
+
+        Entree(V valeur, long expireA, Object groupe) {
+            this.valeur = valeur;
+            this.expireA = expireA;
+            this.groupe = groupe;
+        }
+    }
+
+    // Chargement en cours d'une clé, partagé par ses lecteurs concurrents
+    private static final class Chargement {
+        // Horloge du segment au premier lecteur
+        final long debut;
+        int lecteurs;
+        boolean perime;
+
+        Chargement(long debut) {
+            this.debut = debut;
+        }
+    }
+
+    /**
+     * Part du cache : toutes ses méthodes s'appellent en tenant son moniteur.
+     */
+    private final class Segment {
+
+        final int capacite;
+        // Ordre d'accès : l'entrée la moins récemment lue est la première évincée
+        final LinkedHashMap<K, Entree<V>> entrees;
+        final Map<K, Chargement> chargements = new HashMap<>();
+        final Map<Object, Set<K>> parGroupe = new HashMap<>();
+        // Groupes invalidés pendant des chargements, avec la valeur de l'horloge à l'invalidation ;
+        // vidé dès qu'aucun chargement n'est en cours
+        final Map<Object, Long> groupesInvalides = new HashMap<>();
+        long horloge;
+
+        Segment(int capacite) {
+            this.capacite = capacite;
+            this.entrees = new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entree<V>> plusAncienne) {
+                    if (size() > Segment.this.capacite) {
+                        desindexer(plusAncienne.getKey(), plusAncienne.getValue().groupe);
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        // Entrée valide, ou null (absente ou expirée, alors retirée)
+        Entree<V> lire(K cle, long maintenant) {
+            Entree<V> entree = entrees.get(cle);
+            if (entree == null || maintenant - entree.expireA < 0) {
+                return entree;
+            }
+            retirer(cle);
+            expirations.increment();
+            return null;
+        }
+
+        Chargement debuterChargement(K cle) {
+            Chargement chargement = chargements.computeIfAbsent(cle, c -> new Chargement(horloge));
+            chargement.lecteurs++;
+            return chargement;
+        }
+
+        // valeur null : rien à insérer (absente, ou chargement en échec)
+        void terminerChargement(K cle, Chargement chargement, V valeur, long expireA) {
+            if (--chargement.lecteurs == 0 && chargements.get(cle) == chargement) {
+                chargements.remove(cle);
+            }
+            if (valeur != null && !chargement.perime) {
+                Object groupe = groupe(cle, valeur);
+                Long invalidation = groupe != null ? groupesInvalides.get(groupe) : null;
+                if (invalidation == null || invalidation <= chargement.debut) {
+                    retirer(cle);
+                    entrees.put(cle, new Entree<>(valeur, expireA, groupe));
+                    indexer(cle, groupe);
+                }
+            }
+            if (chargements.isEmpty()) {
+                groupesInvalides.clear();
+            }
+        }
+
+        void invalider(K cle) {
+            Chargement chargement = chargements.remove(cle);
+            if (chargement != null) {
+                chargement.perime = true;
+            }
+            if (retirer(cle)) {
+                invalidations.increment();
+            }
+        }
+
+        void invaliderGroupe(Object groupe) {
+            Set<K> cles = parGroupe.remove(groupe);
+            if (cles != null) {
+                for (K cle : cles) {
+                    entrees.remove(cle);
+                    invalidations.increment();
+                }
+            }
+            // Le groupe d'une valeur en cours de chargement n'est connu qu'à son insertion
+            if (!chargements.isEmpty()) {
+                groupesInvalides.put(groupe, ++horloge);
+            }
+        }
+
+        void vider() {
+            chargements.values().forEach(chargement -> chargement.perime = true);
+            chargements.clear();
+            groupesInvalides.clear();
+            invalidations.add(entrees.size());
+            entrees.clear();
+            parGroupe.clear();
+        }
+
+        private boolean retirer(K cle) {
+            Entree<V> entree = entrees.remove(cle);
+            if (entree == null) {
+                return false;
+            }
+            desindexer(cle, entree.groupe);
+            return true;
+        }
+
+        private void indexer(K cle, Object groupe) {
+            if (groupe != null) {
+                parGroupe.computeIfAbsent(groupe, g -> new HashSet<>()).add(cle);
+            }
+        }
+
+        private void desindexer(K cle, Object groupe) {
+            if (groupe == null) {
+                return;
+            }
+            Set<K> cles = parGroupe.get(groupe);
+            if (cles != null && cles.remove(cle) && cles.isEmpty()) {
+                parGroupe.remove(groupe);
+            }
+        }
+    }
+
+    private final int tailleMax;
+    private final long ttlNanos;
+    private final BiFunction<K, V, ?> groupe;
+    private final List<Segment> segments = new ArrayList<>();
+
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public CacheBorne(int tailleMax, long ttlMillis) {
+        this(tailleMax, ttlMillis, null);
+    }
+
+    // groupe : clé secondaire d'une entrée pour invaliderGroupe, null si l'entrée n'en a pas
+    public CacheBorne(int tailleMax, long ttlMillis, BiFunction<K, V, ?> groupe) {
+        this.tailleMax = tailleMax;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.groupe = groupe;
+        // Puissance de deux, pour choisir le segment par masque
+        int nombre = 1;
+        while (nombre < SEGMENTS_MAX && nombre * 2 * TAILLE_SEGMENT_MIN <= tailleMax) {
+            nombre *= 2;
+        }
+        for (int i = 0; i < nombre; i++) {
+            segments.add(new Segment(Math.max(1, (tailleMax + nombre - 1) / nombre)));
+        }
+    }
+
+    // Retourne la valeur en cache ou la charge ; une valeur null n'est pas mise en cache
+    public V obtenir(K cle, Function<K, V> chargeur) {
+        long maintenant = System.nanoTime();
+        Segment segment = segment(cle);
+        Chargement chargement;
+        synchronized (segment) {
+            Entree<V> entree = segment.lire(cle, maintenant);
+            if (entree != null) {
+                succes.increment();
+                return entree.valeur;
+            }
+            chargement = segment.debuterChargement(cle);
+        }
+        echecs.increment();
+        V valeur = null;
+        try {
+            valeur = chargeur.apply(cle);
+            return valeur;
+        } finally {
+            synchronized (segment) {
+                segment.terminerChargement(cle, chargement, valeur, maintenant + ttlNanos);
+            }
+        }
+    }
+
+    // Lecture groupée : les clés absentes ou expirées sont chargées en un seul appel du chargeur,
+    // qui omet celles qui n'existent pas. Chaque segment n'est verrouillé qu'une fois par passe
+    public Map<K, V> obtenirTous(Collection<K> cles, Function<Set<K>, Map<K, V>> chargeur) {
+        long maintenant = System.nanoTime();
+        Map<K, V> resultat = new HashMap<>();
+        Map<K, Chargement> chargements = new HashMap<>();
+        for (Map.Entry<Segment, List<K>> part : parSegment(cles).entrySet()) {
+            Segment segment = part.getKey();
+            synchronized (segment) {
+                for (K cle : part.getValue()) {
+                    if (resultat.containsKey(cle) || chargements.containsKey(cle)) {
+                        continue;
+                    }
+                    Entree<V> entree = segment.lire(cle, maintenant);
+                    if (entree != null) {
+                        succes.increment();
+                        resultat.put(cle, entree.valeur);
+                    } else {
+                        chargements.put(cle, segment.debuterChargement(cle));
+                    }
+                }
+            }
+        }
+        if (chargements.isEmpty()) {
+            return resultat;
+        }
+        echecs.add(chargements.size());
+        Map<K, V> chargees = Map.of();
+        try {
+            chargees = chargeur.apply(chargements.keySet());
+        } finally {
+            for (Map.Entry<Segment, List<K>> part : parSegment(chargements.keySet()).entrySet()) {
+                Segment segment = part.getKey();
+                synchronized (segment) {
+                    for (K cle : part.getValue()) {
+                        segment.terminerChargement(cle, chargements.get(cle), chargees.get(cle), maintenant + ttlNanos);
+                    }
+                }
+            }
+        }
+        chargees.forEach((cle, valeur) -> {
+            if (valeur != null) {
+                resultat.put(cle, valeur);
+            }
+        });
+        return resultat;
+    }
+
+    public void invalider(K cle) {
+        Segment segment = segment(cle);
+        synchronized (segment) {
+            segment.invalider(cle);
+        }
+    }
+
+    // Entrées dont le groupe (voir le constructeur) vaut groupe, par l'index : sans parcours du cache
+    public void invaliderGroupe(Object groupe) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.invaliderGroupe(groupe);
+            }
+        }
+    }
+
+    public void vider() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.vider();
+            }
+        }
+    }
+
+    public Map<String, Long> statistiques() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        long taille = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                taille += segment.entrees.size();
+            }
+        }
+        stats.put("taille", taille);
+        stats.put("tailleMax", (long) tailleMax);
+        stats.put("segments", (long) segments.size());
+        stats.put("succes", succes.sum());
+        stats.put("echecs", echecs.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private Segment segment(K cle) {
+        int h = cle.hashCode();
+        return segments.get((h ^ (h >>> 16)) & (segments.size() - 1));
+    }
+
+    private Map<Segment, List<K>> parSegment(Collection<K> cles) {
+        Map<Segment, List<K>> parts = new HashMap<>();
+        for (K cle : cles) {
+            parts.computeIfAbsent(segment(cle), s -> new ArrayList<>()).add(cle);
+        }
+        return parts;
+    }
+
+    private Object groupe(K cle, V valeur) {
+        return groupe != null ? groupe.apply(cle, valeur) : null;
+    }
+}
@@ -0,0 +1,71 @@
+package metier.impl;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import metier.entities.StatutProjet;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches partagés de lecture par id pour Projet et Utilisateur, et des listes d'ids de projets par propriétaire.
+ * Tailles et durées de vie réglables par propriétés système
+ * (gestionprojets.cache.projets.taille, gestionprojets.cache.projets.ttl.ms, idem pour utilisateurs,
+ * listes et connexions).
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class CacheEntites {
+
+    public record CleListe(Long utilisateurId, StatutProjet statut) {
+    }
+
+    // Groupés par propriétaire : ils embarquent son nom et son email
+    private final CacheBorne<Long, InstantaneProjet> projets = new CacheBorne<>(
+            Integer.getInteger("gestionprojets.cache.projets.taille", 10_000),
+            Long.getLong("gestionprojets.cache.projets.ttl.ms", 300_000L),
+            (id, projet) -> projet.utilisateurId());
+
+    private final CacheBorne<Long, InstantaneUtilisateur> utilisateurs = new CacheBorne<>(
+            Integer.getInteger("gestionprojets.cache.utilisateurs.taille", 5_000),
+            Long.getLong("gestionprojets.cache.utilisateurs.ttl.ms", 300_000L));
+
+    // Ids des projets d'un propriétaire, tous (statut null) ou d'un statut, triés ; le contenu des projets
+    // est lu dans le cache projets. Groupées par propriétaire
+    private final CacheBorne<CleListe, List<Long>> listes = new CacheBorne<>(
+            Integer.getInteger("gestionprojets.cache.listes.taille", 20_000),
+            Long.getLong("gestionprojets.cache.listes.ttl.ms", 300_000L),
+            (cle, ids) -> cle.utilisateurId());
+
+    // Vérifications de mot de passe réussies récemment, indexées par HachageMotDePasse.cleVerification
+    private final CacheBorne<String, Boolean> connexions = new CacheBorne<>(
+            Integer.getInteger("gestionprojets.cache.connexions.taille", 2_000),
+            Long.getLong("gestionprojets.cache.connexions.ttl.ms", 900_000L));
+
+    public CacheBorne<Long, InstantaneProjet> projets() {
+        return projets;
+    }
+
+    public CacheBorne<Long, InstantaneUtilisateur> utilisateurs() {
+        return utilisateurs;
+    }
+
+    public CacheBorne<CleListe, List<Long>> listes() {
+        return listes;
+    }
+
+    public CacheBorne<String, Boolean> connexions() {
+        return connexions;
+    }
+
+    public Map<String, Map<String, Long>> statistiques() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        stats.put("projets", projets.statistiques());
+        stats.put("utilisateurs", utilisateurs.statistiques());
+        stats.put("listes", listes.statistiques());
+        stats.put("connexions", connexions.statistiques());
+        return stats;
+    }
+}
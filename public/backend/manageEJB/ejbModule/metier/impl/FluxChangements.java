@@ -0,0 +1,168 @@
+package metier.impl;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import metier.entities.Changement;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numérotation du journal des changements et réveil de ses lecteurs (long-poll, SSE). Une tâche
+ * planifiée, seule à écrire seq, numérote chaque seconde les événements validés puis réveille
+ * les lecteurs de cette instance ; lectures et écritures n'y prennent aucun verrou.
+ * Sur une autre instance, un lecteur ne voit les événements qu'à l'expiration de son attente.
+ * Purge aussi les événements plus anciens que la rétention.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class FluxChangements {
+
+    // Événements numérotés au plus par appel à numeroter
+    private static final int TAILLE_NUMEROTATION = 10_000;
+
+    private static final Duration RETENTION = Duration.ofDays(
+            Long.getLong("gestionprojets.changements.retention.jours", 7));
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactions;
+
+    // Un tick plus long que l'intervalle ne se superpose pas au suivant
+    private final AtomicBoolean numerotationEnCours = new AtomicBoolean();
+
+    private final AtomicLong dernier = new AtomicLong();
+
+    private final Set<Attente> attentes = ConcurrentHashMap.newKeySet();
+
+    private static final class Attente extends CompletableFuture<Void> {
+        final long depuis;
+
+        Attente(long depuis) {
+            this.depuis = depuis;
+        }
+    }
+
+    // Terminée dès qu'un événement de numéro supérieur à depuis est validé sur cette instance.
+    // À demander seulement après une lecture vide, puis relire le journal ; si la relecture
+    // n'est pas vide, annuler l'attente (cancel) pour la retirer des inscrits
+    public CompletableFuture<Void> attendre(long depuis) {
+        Attente attente = new Attente(depuis);
+        if (dernier.get() > depuis) {
+            attente.complete(null);
+            return attente;
+        }
+        attentes.add(attente);
+        attente.whenComplete((v, e) -> attentes.remove(attente));
+        // Signal arrivé pendant l'inscription
+        if (dernier.get() > depuis) {
+            attente.complete(null);
+        }
+        return attente;
+    }
+
+    @Schedule(second = "*", minute = "*", hour = "*", persistent = false)
+    public void numeroterPlanifie() {
+        if (!numerotationEnCours.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            numeroter();
+        } finally {
+            numerotationEnCours.set(false);
+        }
+    }
+
+    // Attribue seq, sans trou et dans l'ordre des id, aux événements validés qui n'en ont pas encore ;
+    // renvoie le dernier seq attribué, 0 si rien n'était à numéroter. Seul usage en écriture de la ligne
+    // 'Changement' de sequence_id : entre instances, seules leurs tâches de numérotation s'y attendent.
+    // Les lecteurs locaux sont réveillés au commit
+    public long numeroter() {
+        if (em.createQuery("SELECT c.id FROM Changement c WHERE c.seq IS NULL", Long.class)
+              .setMaxResults(1)
+              .getResultList().isEmpty()) {
+            return 0;
+        }
+        int lignes = em.createNativeQuery(
+                "UPDATE sequence_id SET valeur = valeur WHERE nom_sequence = 'Changement'")
+            .executeUpdate();
+        if (lignes == 0) {
+            throw new IllegalStateException("Ligne 'Changement' absente de sequence_id (migration V5)");
+        }
+        long seq = ((Number) em.createNativeQuery(
+                "SELECT valeur FROM sequence_id WHERE nom_sequence = 'Changement'")
+            .getSingleResult()).longValue();
+        List<Changement> enAttente = em.createQuery(
+                "SELECT c FROM Changement c WHERE c.seq IS NULL ORDER BY c.id", Changement.class)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .setMaxResults(TAILLE_NUMEROTATION)
+            .getResultList();
+        if (enAttente.isEmpty()) {
+            // Numérotés par une autre instance pendant l'attente du verrou
+            return 0;
+        }
+        for (Changement changement : enAttente) {
+            changement.setSeq(++seq);
+        }
+        em.createNativeQuery("UPDATE sequence_id SET valeur = ?1 WHERE nom_sequence = 'Changement'")
+          .setParameter(1, seq)
+          .executeUpdate();
+        long dernierNumero = seq;
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    signaler(dernierNumero);
+                }
+            }
+        });
+        return seq;
+    }
+
+    public void signaler(long seq) {
+        long valeur = dernier.accumulateAndGet(seq, Math::max);
+        for (Attente attente : attentes) {
+            if (valeur > attente.depuis) {
+                attente.complete(null);
+            }
+        }
+    }
+
+    // Supprime un préfixe de numéros : jusqu'au plus grand seq d'un événement antérieur à la rétention.
+    // Les événements pas encore numérotés restent (seq NULL), les lecteurs les verront ; le journal
+    // gardé reste sans trou, un écart après since signifie donc bien une purge (410)
+    @Schedule(hour = "3", persistent = false)
+    public void purger() {
+        Long filigrane = em.createQuery(
+                "SELECT MAX(c.seq) FROM Changement c WHERE c.horodatage < :limite", Long.class)
+            .setParameter("limite", Instant.now().minus(RETENTION))
+            .getSingleResult();
+        if (filigrane == null) {
+            return;
+        }
+        em.createQuery("DELETE FROM Changement c WHERE c.seq <= :filigrane")
+          .setParameter("filigrane", filigrane)
+          .executeUpdate();
+    }
+}
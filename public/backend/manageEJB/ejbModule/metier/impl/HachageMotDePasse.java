@@ -0,0 +1,129 @@
+package metier.impl;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.SecretKeySpec;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Hachage des mots de passe par PBKDF2-HMAC-SHA256 (JDK, sans dépendance).
+ * Format stocké : pbkdf2$<itérations>$<sel base64>$<empreinte base64>.
+ * Le coût se règle par la propriété système gestionprojets.pbkdf2.iterations ;
+ * les empreintes calculées avec un coût inférieur sont refaites à la connexion suivante.
+ * Les valeurs sans préfixe sont des mots de passe historiques stockés en clair.
+ */
+public final class HachageMotDePasse {
+
+    private static final String ALGORITHME = "PBKDF2WithHmacSHA256";
+    private static final String PREFIXE = "pbkdf2$";
+    private static final int TAILLE_SEL = 16;
+    private static final int TAILLE_EMPREINTE_BITS = 256;
+
+    static final int ITERATIONS = Integer.getInteger("gestionprojets.pbkdf2.iterations", 600_000);
+
+    private static final SecureRandom ALEA = new SecureRandom();
+
+    // Clé propre à ce processus pour les clés du cache des vérifications récentes.
+    // nextBytes et non generateSeed, qui peut bloquer l'initialisation de la classe faute d'entropie
+    private static final byte[] CLE_CACHE = aleatoire(32);
+
+    // Empreinte de référence : une connexion sur un email inconnu coûte autant qu'un mauvais mot de passe
+    private static final String FACTICE = hacher("factice");
+
+    private HachageMotDePasse() {
+    }
+
+    private static byte[] aleatoire(int taille) {
+        byte[] octets = new byte[taille];
+        ALEA.nextBytes(octets);
+        return octets;
+    }
+
+    public static String hacher(String motDePasse) {
+        byte[] sel = new byte[TAILLE_SEL];
+        ALEA.nextBytes(sel);
+        byte[] empreinte = deriver(motDePasse, sel, ITERATIONS);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIXE + ITERATIONS + "$" + base64.encodeToString(sel) + "$" + base64.encodeToString(empreinte);
+    }
+
+    // Comparaison en temps constant, que la valeur stockée soit hachée ou encore en clair
+    public static boolean verifier(String motDePasse, String stocke) {
+        if (motDePasse == null || stocke == null) {
+            return false;
+        }
+        if (!estHache(stocke)) {
+            return MessageDigest.isEqual(
+                    motDePasse.getBytes(StandardCharsets.UTF_8), stocke.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parties = stocke.split("\\$");
+        if (parties.length != 4) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parties[1]);
+            byte[] sel = Base64.getDecoder().decode(parties[2]);
+            byte[] attendue = Base64.getDecoder().decode(parties[3]);
+            return MessageDigest.isEqual(deriver(motDePasse, sel, iterations), attendue);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Égalise le temps de réponse quand aucun compte ne correspond
+    public static void verifierFactice(String motDePasse) {
+        verifier(motDePasse == null ? "" : motDePasse, FACTICE);
+    }
+
+    public static boolean estHache(String stocke) {
+        return stocke != null && stocke.startsWith(PREFIXE);
+    }
+
+    // Vrai pour un mot de passe en clair ou haché avec un coût plus faible que le coût courant
+    public static boolean doitEtreRehache(String stocke) {
+        if (!estHache(stocke)) {
+            return true;
+        }
+        String[] parties = stocke.split("\\$");
+        try {
+            return parties.length != 4 || Integer.parseInt(parties[1]) < ITERATIONS;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Clé du cache des vérifications réussies : HMAC (clé aléatoire du processus) de l'email,
+     * de la valeur stockée et du mot de passe saisi. Rapide à calculer, elle ne révèle pas
+     * le mot de passe et change d'elle-même quand la valeur stockée change.
+     */
+    public static String cleVerification(String email, String stocke, String motDePasse) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(CLE_CACHE, "HmacSHA256"));
+            for (String partie : new String[] { email, stocke, motDePasse }) {
+                mac.update(partie.getBytes(StandardCharsets.UTF_8));
+                mac.update((byte) 0);
+            }
+            return Base64.getEncoder().withoutPadding().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponible", e);
+        }
+    }
+
+    private static byte[] deriver(String motDePasse, byte[] sel, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(motDePasse.toCharArray(), sel, iterations, TAILLE_EMPREINTE_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHME).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 indisponible", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
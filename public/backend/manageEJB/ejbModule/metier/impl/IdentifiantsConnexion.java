@@ -0,0 +1,11 @@
+package metier.impl;
+
+/**
+ * Projection lue à la connexion : uniquement ce qu'il faut pour vérifier le mot de passe
+ * et répondre, sans charger l'entité Utilisateur.
+ */
+public record IdentifiantsConnexion(Long id, String motDePasse, String role, String nom) {
+
+    public static final String SELECT = "SELECT new metier.impl.IdentifiantsConnexion(u.id, u.mot_de_passe, u.role, u.nom)"
+            + " FROM Utilisateur u WHERE u.email = :email";
+}
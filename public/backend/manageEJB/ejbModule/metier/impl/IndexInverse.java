@@ -0,0 +1,285 @@
+package metier.impl;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire sur titre, technologie et description des projets.
+ * <p>
+ * Chaque projet indexé reçoit un numéro de document croissant ; une liste de postings par terme
+ * stocke (numéro &lt;&lt; 8 | poids) dans un int[], soit 4 octets par occurrence. Une mise à jour
+ * marque l'ancien document supprimé et en ajoute un nouveau : les documents morts sont filtrés à la
+ * lecture et disparaissent à la reconstruction suivante (voir IndexRecherche).
+ * <p>
+ * Non synchronisée : IndexRecherche sérialise les écritures et les sépare des lectures.
+ */
+public class IndexInverse {
+
+    // 23 bits de numéro de document, 8 bits de poids
+    static final int DOCUMENTS_MAX = 1 << 23;
+
+    private static final int POIDS_TITRE = 8;
+    private static final int POIDS_TECHNOLOGIE = 4;
+    private static final int POIDS_DESCRIPTION = 1;
+    private static final int POIDS_MAX = 255;
+
+    // Un terme exact compte double par rapport à un terme qui ne fait que commencer par le mot cherché
+    private static final float FACTEUR_EXACT = 2f;
+    // Borne l'expansion des préfixes courts ("a" -> des milliers de termes)
+    private static final int EXPANSIONS_MAX = 256;
+    static final int MOTS_MAX = 8;
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+
+    private static final class Postings {
+        int[] valeurs = new int[4];
+        int taille;
+
+        void ajouter(int valeur) {
+            if (taille == valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, taille * 2);
+            }
+            valeurs[taille++] = valeur;
+        }
+    }
+
+    // Tableaux de travail d'une recherche, réutilisés par thread
+    private static final class Accumulateur {
+        float[] scores = new float[0];
+        byte[] mots = new byte[0];
+        int[] touches = new int[64];
+    }
+
+    private static final ThreadLocal<Accumulateur> ACCUMULATEURS = ThreadLocal.withInitial(Accumulateur::new);
+
+    // Un mot de la requête et les termes de l'index qui lui correspondent
+    private record Candidats(String mot, List<Map.Entry<String, Postings>> termes) {
+
+        long cout() {
+            long cout = 0;
+            for (Map.Entry<String, Postings> e : termes) {
+                cout += e.getValue().taille;
+            }
+            return cout;
+        }
+    }
+
+    /** Identifiants de projets classés par pertinence, et nombre total de correspondances. */
+    public record Resultats(List<Long> ids, int total) {
+    }
+
+    // Mêmes listes sous deux vues : accès direct à l'indexation, ordre trié pour l'expansion des préfixes
+    private final Map<String, Postings> parTerme = new HashMap<>();
+    private final TreeMap<String, Postings> termes = new TreeMap<>();
+    private long[] projets = new long[1024];
+    private int documents;
+    private final BitSet supprimes = new BitSet();
+    private final Map<Long, Integer> documentParProjet = new HashMap<>();
+
+    public void indexer(Long id, String titre, String description, String technologie) {
+        supprimer(id);
+        if (documents >= DOCUMENTS_MAX) {
+            throw new IllegalStateException("Index plein, reconstruction nécessaire");
+        }
+        int document = documents++;
+        if (document == projets.length) {
+            projets = Arrays.copyOf(projets, projets.length * 2);
+        }
+        projets[document] = id;
+        documentParProjet.put(id, document);
+
+        Map<String, Integer> poids = new HashMap<>();
+        ajouterPoids(poids, titre, POIDS_TITRE);
+        ajouterPoids(poids, technologie, POIDS_TECHNOLOGIE);
+        ajouterPoids(poids, description, POIDS_DESCRIPTION);
+        poids.forEach((terme, p) -> postings(terme).ajouter(document << 8 | Math.min(p, POIDS_MAX)));
+    }
+
+    private Postings postings(String terme) {
+        Postings postings = parTerme.get(terme);
+        if (postings == null) {
+            postings = new Postings();
+            parTerme.put(terme, postings);
+            termes.put(terme, postings);
+        }
+        return postings;
+    }
+
+    public void supprimer(Long id) {
+        Integer document = documentParProjet.remove(id);
+        if (document != null) {
+            supprimes.set(document);
+        }
+    }
+
+    public int documentsVivants() {
+        return documentParProjet.size();
+    }
+
+    public int documentsMorts() {
+        return supprimes.cardinality();
+    }
+
+    public int documents() {
+        return documents;
+    }
+
+    public int termes() {
+        return termes.size();
+    }
+
+    /**
+     * Tous les mots de la requête doivent correspondre (ET), chacun à un terme égal ou commençant par lui.
+     * Score = somme des poids des termes trouvés ; à score égal, le projet le plus récemment indexé d'abord.
+     */
+    public Resultats rechercher(String requete, int offset, int limit) {
+        List<String> mots = normaliser(requete);
+        if (mots.isEmpty()) {
+            return new Resultats(List.of(), 0);
+        }
+        if (mots.size() > MOTS_MAX) {
+            mots = mots.subList(0, MOTS_MAX);
+        }
+
+        // Termes candidats de chaque mot, le mot le plus sélectif traité en premier
+        List<Candidats> candidats = new ArrayList<>();
+        for (String mot : mots) {
+            List<Map.Entry<String, Postings>> trouves = new ArrayList<>();
+            NavigableMap<String, Postings> prefixes = mot.length() > 1
+                    ? termes.subMap(mot, true, mot + Character.MAX_VALUE, false)
+                    : termes.subMap(mot, true, mot, true);
+            for (Map.Entry<String, Postings> e : prefixes.entrySet()) {
+                trouves.add(e);
+                if (trouves.size() == EXPANSIONS_MAX) {
+                    break;
+                }
+            }
+            if (trouves.isEmpty()) {
+                return new Resultats(List.of(), 0);
+            }
+            candidats.add(new Candidats(mot, trouves));
+        }
+        candidats.sort((a, b) -> Long.compare(a.cout(), b.cout()));
+
+        Accumulateur acc = ACCUMULATEURS.get();
+        if (acc.scores.length < documents) {
+            int taille = Math.max(documents, acc.scores.length * 2);
+            acc.scores = new float[taille];
+            acc.mots = new byte[taille];
+        }
+        int touches = 0;
+        try {
+            for (int i = 0; i < candidats.size(); i++) {
+                Candidats mot = candidats.get(i);
+                for (Map.Entry<String, Postings> e : mot.termes()) {
+                    float facteur = e.getKey().equals(mot.mot()) ? FACTEUR_EXACT : 1f;
+                    Postings p = e.getValue();
+                    for (int k = 0; k < p.taille; k++) {
+                        int document = p.valeurs[k] >>> 8;
+                        int dejaTrouves = acc.mots[document];
+                        if (i == 0 && dejaTrouves == 0) {
+                            if (touches == acc.touches.length) {
+                                acc.touches = Arrays.copyOf(acc.touches, touches * 2);
+                            }
+                            acc.touches[touches++] = document;
+                        }
+                        // Un document ne reste candidat que s'il a trouvé tous les mots précédents
+                        if (dejaTrouves == i || dejaTrouves == i + 1) {
+                            acc.mots[document] = (byte) (i + 1);
+                            acc.scores[document] += (p.valeurs[k] & 0xFF) * facteur;
+                        }
+                    }
+                }
+            }
+            return classer(acc, touches, candidats.size(), offset, limit);
+        } finally {
+            for (int k = 0; k < touches; k++) {
+                int document = acc.touches[k];
+                acc.scores[document] = 0f;
+                acc.mots[document] = 0;
+            }
+        }
+    }
+
+    private Resultats classer(Accumulateur acc, int touches, int nbMots, int offset, int limit) {
+        int garder = offset + limit;
+        // Tas des meilleurs : le moins bon en tête pour être évincé
+        PriorityQueue<Integer> meilleurs = new PriorityQueue<>(Math.max(1, Math.min(garder, touches)),
+                (a, b) -> acc.scores[a] != acc.scores[b] ? Float.compare(acc.scores[a], acc.scores[b]) : Integer.compare(a, b));
+        int total = 0;
+        for (int k = 0; k < touches; k++) {
+            int document = acc.touches[k];
+            if (acc.mots[document] != nbMots || supprimes.get(document)) {
+                continue;
+            }
+            total++;
+            if (meilleurs.size() == garder) {
+                // Tas plein : la plupart des documents sont écartés ici sans toucher au tas
+                if (meilleurs.comparator().compare(document, meilleurs.peek()) <= 0) {
+                    continue;
+                }
+                meilleurs.poll();
+            }
+            meilleurs.add(document);
+        }
+        int[] classes = new int[meilleurs.size()];
+        for (int k = classes.length - 1; k >= 0; k--) {
+            classes[k] = meilleurs.poll();
+        }
+        List<Long> ids = new ArrayList<>(Math.max(0, classes.length - offset));
+        for (int k = offset; k < classes.length; k++) {
+            ids.add(projets[classes[k]]);
+        }
+        return new Resultats(ids, total);
+    }
+
+    private static void ajouterPoids(Map<String, Integer> poids, String texte, int poidsChamp) {
+        for (String terme : normaliser(texte)) {
+            poids.merge(terme, poidsChamp, Integer::sum);
+        }
+    }
+
+    // Minuscules sans accents, découpage sur tout ce qui n'est ni lettre ni chiffre
+    static List<String> normaliser(String texte) {
+        if (texte == null || texte.isBlank()) {
+            return List.of();
+        }
+        // La décomposition Unicode (coûteuse) n'est faite que pour les textes non ASCII
+        String simplifie = estAscii(texte)
+                ? texte
+                : DIACRITIQUES.matcher(Normalizer.normalize(texte, Normalizer.Form.NFD)).replaceAll("");
+        List<String> mots = new ArrayList<>();
+        StringBuilder mot = new StringBuilder();
+        for (int i = 0; i < simplifie.length(); i++) {
+            char c = simplifie.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                mot.append(Character.toLowerCase(c));
+            } else if (mot.length() > 0) {
+                mots.add(mot.toString());
+                mot.setLength(0);
+            }
+        }
+        if (mot.length() > 0) {
+            mots.add(mot.toString());
+        }
+        return mots;
+    }
+
+    private static boolean estAscii(String texte) {
+        for (int i = 0; i < texte.length(); i++) {
+            if (texte.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
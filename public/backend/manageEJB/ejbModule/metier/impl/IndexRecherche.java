@@ -0,0 +1,145 @@
+package metier.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Recherche plein texte sur les projets (titre, technologie, description) : IndexInverse construit
+ * au démarrage en lisant les projets en flux, puis tenu à jour par ProjetManagerImpl après chaque commit.
+ * Les documents remplacés ou supprimés restent dans l'index jusqu'à une reconstruction, déclenchée
+ * périodiquement quand ils deviennent trop nombreux ; les écritures validées pendant une
+ * reconstruction sont rejouées sur le nouvel index avant qu'il remplace l'ancien.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class IndexRecherche {
+
+    private static final int TAILLE_LOT_LECTURE = 1000;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private final AtomicBoolean reconstructionEnCours = new AtomicBoolean();
+
+    // Protégés par verrou ; journal non null pendant une reconstruction
+    private IndexInverse index = new IndexInverse();
+    private List<Consumer<IndexInverse>> journal;
+
+    @PostConstruct
+    public void construire() {
+        reconstruire();
+    }
+
+    @Schedule(minute = "*/30", hour = "*", persistent = false)
+    public void compacter() {
+        int vivants;
+        int morts;
+        int documents;
+        verrou.readLock().lock();
+        try {
+            vivants = index.documentsVivants();
+            morts = index.documentsMorts();
+            documents = index.documents();
+        } finally {
+            verrou.readLock().unlock();
+        }
+        if (morts > Math.max(10_000, vivants / 4) || documents > IndexInverse.DOCUMENTS_MAX / 10 * 9) {
+            reconstruire();
+        }
+    }
+
+    public void reconstruire() {
+        if (!reconstructionEnCours.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            ecrire(() -> journal = new ArrayList<>());
+            IndexInverse nouveau = new IndexInverse();
+            // Projection scalaire : rien n'est attaché au contexte de persistance
+            try (Stream<Object[]> lignes = em.createQuery(
+                    "SELECT p.id, p.titre, p.description, p.technologie FROM Projet p", Object[].class)
+                    .setHint("org.hibernate.fetchSize", TAILLE_LOT_LECTURE)
+                    .setHint("org.hibernate.readOnly", true)
+                    .getResultStream()) {
+                lignes.forEach(l -> nouveau.indexer((Long) l[0], (String) l[1], (String) l[2], (String) l[3]));
+            }
+            ecrire(() -> {
+                journal.forEach(operation -> operation.accept(nouveau));
+                index = nouveau;
+            });
+        } finally {
+            ecrire(() -> journal = null);
+            reconstructionEnCours.set(false);
+        }
+    }
+
+    public void indexer(Long id, String titre, String description, String technologie) {
+        appliquer(i -> {
+            // Index plein : le projet sera indexé par la prochaine reconstruction (voir compacter)
+            if (i.documents() < IndexInverse.DOCUMENTS_MAX) {
+                i.indexer(id, titre, description, technologie);
+            }
+        });
+    }
+
+    public void supprimer(Long id) {
+        appliquer(i -> i.supprimer(id));
+    }
+
+    public IndexInverse.Resultats rechercher(String requete, int offset, int limit) {
+        verrou.readLock().lock();
+        try {
+            return index.rechercher(requete, offset, limit);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public Map<String, Long> statistiques() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        verrou.readLock().lock();
+        try {
+            stats.put("projets", (long) index.documentsVivants());
+            stats.put("documentsMorts", (long) index.documentsMorts());
+            stats.put("termes", (long) index.termes());
+        } finally {
+            verrou.readLock().unlock();
+        }
+        return stats;
+    }
+
+    private void appliquer(Consumer<IndexInverse> operation) {
+        ecrire(() -> {
+            operation.accept(index);
+            if (journal != null) {
+                journal.add(operation);
+            }
+        });
+    }
+
+    private void ecrire(Runnable action) {
+        verrou.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package metier.impl;
+
+import java.time.LocalDate;
+
+import metier.dto.ProjetSummary;
+import metier.entities.Projet;
+import metier.entities.StatutProjet;
+import metier.entities.Utilisateur;
+
+/**
+ * Copie immuable d'un Projet (et de l'essentiel de son propriétaire) conservée dans le cache.
+ * Chaque lecture reconstruit une entité détachée neuve.
+ */
+public record InstantaneProjet(Long id, String titre, String description, String technologie,
+        LocalDate dateCreation, LocalDate dateTerminaison, StatutProjet statut, Long version,
+        Long utilisateurId, String utilisateurNom, String utilisateurEmail, String utilisateurRole,
+        Long utilisateurVersion) {
+
+    public static InstantaneProjet de(Projet p) {
+        Utilisateur u = p.getUtilisateur();
+        return new InstantaneProjet(p.getId(), p.getTitre(), p.getDescription(), p.getTechnologie(),
+                p.getDateCreation(), p.getDateTerminaison(), p.getStatut(), p.getVersion(),
+                u != null ? u.getId() : null,
+                u != null ? u.getNom() : null,
+                u != null ? u.getEmail() : null,
+                u != null ? u.getRole() : null,
+                u != null ? u.getVersion() : null);
+    }
+
+    public ProjetSummary resume() {
+        return new ProjetSummary(id, titre, description, statut, technologie, dateCreation, dateTerminaison,
+                utilisateurId, utilisateurNom);
+    }
+
+    public Projet versEntite() {
+        Projet p = new Projet();
+        p.setId(id);
+        p.setTitre(titre);
+        p.setDescription(description);
+        p.setTechnologie(technologie);
+        p.setDateCreation(dateCreation);
+        p.setDateTerminaison(dateTerminaison);
+        p.setStatut(statut);
+        p.setVersion(version);
+        if (utilisateurId != null) {
+            Utilisateur u = new Utilisateur();
+            u.setId(utilisateurId);
+            u.setNom(utilisateurNom);
+            u.setEmail(utilisateurEmail);
+            u.setRole(utilisateurRole);
+            u.setVersion(utilisateurVersion);
+            // Compteurs laissés null (non sérialisés) : ils changent sans que la version du propriétaire
+            // avance, ils ne sont donc pas copiés ici ; les endpoints /utilisateurs les exposent
+            p.setUtilisateur(u);
+        }
+        return p;
+    }
+}
@@ -0,0 +1,30 @@
+package metier.impl;
+
+import metier.entities.Utilisateur;
+
+/**
+ * Copie immuable d'un Utilisateur conservée dans le cache, sans mot de passe ni projets.
+ * Compteurs null quand ils n'ont pas été lus (voir Utilisateur).
+ */
+public record InstantaneUtilisateur(Long id, String nom, String email, String role, Long version,
+        Long nbProjets, Long nbProjetsEnCours, Long nbProjetsTermines, Long nbProjetsEnAttente) {
+
+    public static InstantaneUtilisateur de(Utilisateur u) {
+        return new InstantaneUtilisateur(u.getId(), u.getNom(), u.getEmail(), u.getRole(), u.getVersion(),
+                u.getNbProjets(), u.getNbProjetsEnCours(), u.getNbProjetsTermines(), u.getNbProjetsEnAttente());
+    }
+
+    public Utilisateur versEntite() {
+        Utilisateur u = new Utilisateur();
+        u.setId(id);
+        u.setNom(nom);
+        u.setEmail(email);
+        u.setRole(role);
+        u.setVersion(version);
+        u.setNbProjets(nbProjets);
+        u.setNbProjetsEnCours(nbProjetsEnCours);
+        u.setNbProjetsTermines(nbProjetsTermines);
+        u.setNbProjetsEnAttente(nbProjetsEnAttente);
+        return u;
+    }
+}
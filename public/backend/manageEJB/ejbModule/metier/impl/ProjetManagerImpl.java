@@ -1,26 +1,229 @@
 package metier.impl;
 
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Schedule;
 import jakarta.ejb.Stateless;
+import jakarta.interceptor.Interceptors;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.NoResultException;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import metier.GrapheChargement;
 import metier.ProjetManager;
+import metier.dto.Estampille;
+import metier.dto.ModificationProjet;
+import metier.dto.Page;
+import metier.dto.ProjetFilter;
+import metier.dto.ProjetSummary;
+import metier.dto.ResultatImport;
+import metier.dto.TableauDeBord;
 import metier.entities.*;
+import metier.metriques.MetriquesInterceptor;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Stateless(name = "MG")
+@Interceptors(MetriquesInterceptor.class)
 public class ProjetManagerImpl implements ProjetManager {
+
+    // Doit rester égal à hibernate.jdbc.batch_size (persistence.xml)
+    private static final int TAILLE_LOT_IMPORT = 50;
+
+    // Nombre maximal de valeurs par clause IN
+    private static final int TAILLE_LOT_IN = 1000;
+
+    // Au-delà, la pertinence n'a plus guère de sens et le tri partiel devient coûteux
+    private static final int RECHERCHE_OFFSET_MAX = 10_000;
+
+    // Au-delà, la base parcourt et jette trop de lignes : affiner les critères
+    private static final int FILTRE_OFFSET_MAX = 100_000;
+
+    // Ids acceptés par une opération groupée (changerStatut, supprimerProjets) ; au-delà, passer par des critères
+    private static final int TAILLE_LOT_OPERATION = 10_000;
+
+    // Au-delà, la liste des projets d'un propriétaire n'est pas gardée en cache (mémoire, requête IN trop large)
+    private static final int LISTE_IDS_MAX = Integer.getInteger("gestionprojets.cache.listes.ids.max", 2_000);
+
+    // Marque en cache une liste plus longue que LISTE_IDS_MAX (comparée par identité)
+    private static final List<Long> LISTE_TROP_LONGUE = Collections.unmodifiableList(new ArrayList<>());
+
+    // Colonnes de tri acceptées par rechercher(ProjetFilter)
+    private static final List<String> TRIS = List.of(
+            "id", "titre", "dateCreation", "dateTerminaison", "statut", "technologie");
+
+    // Indication JPA : seuls les attributs du graphe sont chargés, le reste reste LAZY
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
     
     @PersistenceContext
     private EntityManager em;
 
+    @EJB
+    private StatistiquesProjets statistiques;
+
+    @EJB
+    private CacheEntites caches;
+
+    @EJB
+    private IndexRecherche recherche;
+
+    @EJB
+    private FluxChangements changements;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactions;
+
     @Override
     public void creerProjet(Projet projet) {
+        verifierNouveauProjet(projet);
+        String titre = projet.getTitre();
+        // Vérification unicité du titre (tous utilisateurs confondus)
+        Long count = em.createQuery(
+                "SELECT COUNT(p) FROM Projet p WHERE p.titre = :titre", Long.class)
+            .setParameter("titre", titre)
+            .getSingleResult();
+        if (count != null && count > 0) {
+            throw new IllegalArgumentException(
+                "Un projet avec ce titre existe déjà : '" + titre + "'");
+        }
+        // Vérification existence de l'utilisateur
+        Utilisateur utilisateur = em.find(
+            Utilisateur.class, projet.getUtilisateur().getId());
+        if (utilisateur == null) {
+            throw new IllegalArgumentException("L'utilisateur spécifié n'existe pas");
+        }
+        // Référence gérée à la place de l'objet désérialisé (id seul, sans version)
+        projet.setUtilisateur(utilisateur);
+        // Persistance
+        em.persist(projet);
+        invaliderListes(utilisateur.getId(), projet.getStatut(), null);
+        ajusterCompteursUtilisateur(utilisateur.getId(), new VariationCompteurs().ajouter(projet.getStatut(), 1));
+        journaliser(Changement.Type.CREATION, Changement.Entite.PROJET, List.of(projet.getId()));
+        String technologie = projet.getTechnologie();
+        StatutProjet statut = projet.getStatut();
+        ajusterStatistiques(() -> statistiques.ajuster(technologie, statut, 1));
+        indexerApresCommit(projet);
+    }
+
+    @Override
+    public List<ResultatImport> creerProjets(List<Projet> projets) {
+        if (projets == null || projets.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (projets.size() > TAILLE_IMPORT_MAX) {
+            throw new IllegalArgumentException(
+                "Un import est limité à " + TAILLE_IMPORT_MAX + " projets");
+        }
+        ResultatImport[] resultats = new ResultatImport[projets.size()];
+
+        // 1. Contrôles sans accès base
+        Set<String> titres = new HashSet<>();
+        Set<Long> utilisateurIds = new HashSet<>();
+        for (int i = 0; i < projets.size(); i++) {
+            Projet projet = projets.get(i);
+            try {
+                verifierNouveauProjet(projet);
+                if (!titres.add(projet.getTitre())) {
+                    throw new IllegalArgumentException(
+                        "Titre en double dans l'import : '" + projet.getTitre() + "'");
+                }
+                utilisateurIds.add(projet.getUtilisateur().getId());
+            } catch (IllegalArgumentException e) {
+                resultats[i] = ResultatImport.rejete(i, e.getMessage());
+            }
+        }
+
+        // 2. Titres déjà pris et utilisateurs existants : une requête IN chacun
+        Set<String> titresExistants = new HashSet<>(selectionnerParLots(
+            "SELECT p.titre FROM Projet p WHERE p.titre IN :valeurs", String.class, titres));
+        Set<Long> utilisateursExistants = new HashSet<>(selectionnerParLots(
+            "SELECT u.id FROM Utilisateur u WHERE u.id IN :valeurs", Long.class, utilisateurIds));
+
+        // 3. Insertion par lots JDBC (hibernate.jdbc.batch_size), contexte vidé à chaque lot
+        Map<String, Map<StatutProjet, Long>> crees = new HashMap<>();
+        Map<Long, VariationCompteurs> parProprietaire = new HashMap<>();
+        List<Projet> inseres = new ArrayList<>();
+        int enAttente = 0;
+        for (int i = 0; i < projets.size(); i++) {
+            if (resultats[i] != null) {
+                continue;
+            }
+            Projet projet = projets.get(i);
+            if (titresExistants.contains(projet.getTitre())) {
+                resultats[i] = ResultatImport.rejete(i,
+                    "Un projet avec ce titre existe déjà : '" + projet.getTitre() + "'");
+                continue;
+            }
+            Long utilisateurId = projet.getUtilisateur().getId();
+            if (!utilisateursExistants.contains(utilisateurId)) {
+                resultats[i] = ResultatImport.rejete(i, "L'utilisateur spécifié n'existe pas");
+                continue;
+            }
+            projet.setUtilisateur(em.getReference(Utilisateur.class, utilisateurId));
+            em.persist(projet);
+            invaliderListes(utilisateurId, projet.getStatut(), null);
+            parProprietaire.computeIfAbsent(utilisateurId, u -> new VariationCompteurs()).ajouter(projet.getStatut(), 1);
+            resultats[i] = ResultatImport.cree(i, projet.getId());
+            inseres.add(projet);
+            crees.computeIfAbsent(projet.getTechnologie(), k -> new HashMap<>())
+                 .merge(projet.getStatut(), 1L, Long::sum);
+            if (++enAttente % TAILLE_LOT_IMPORT == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        // Un UPDATE par propriétaire, pas par projet importé
+        parProprietaire.forEach(this::ajusterCompteursUtilisateur);
+        journaliser(Changement.Type.CREATION, Changement.Entite.PROJET,
+            inseres.stream().map(Projet::getId).toList());
+
+        ajusterStatistiques(() -> crees.forEach((technologie, parStatut) ->
+            parStatut.forEach((statut, nombre) -> statistiques.ajuster(technologie, statut, nombre))));
+        if (!crees.isEmpty()) {
+            // Détachés par em.clear() mais plus modifiés : lus tels quels après le commit
+            apresCommit(() -> inseres.forEach(p ->
+                recherche.indexer(p.getId(), p.getTitre(), p.getDescription(), p.getTechnologie())));
+        }
+        return Arrays.asList(resultats);
+    }
+
+    // Contrôles d'un nouveau projet qui ne demandent pas d'accès à la base ;
+    // complète aussi les valeurs par défaut (date de création, statut)
+    private void verifierNouveauProjet(Projet projet) {
         // Validation de base
         if (projet == null) {
             throw new IllegalArgumentException("Le projet ne peut pas être null");
@@ -34,25 +237,10 @@ public class ProjetManagerImpl implements ProjetManager {
         if (titre == null || titre.trim().isEmpty()) {
             throw new IllegalArgumentException("Le titre du projet est obligatoire");
         }
-        // Vérification unicité du titre (tous utilisateurs confondus)
-        Long count = em.createQuery(
-                "SELECT COUNT(p) FROM Projet p WHERE p.titre = :titre", Long.class)
-            .setParameter("titre", titre)
-            .getSingleResult();
-        if (count != null && count > 0) {
-            throw new IllegalArgumentException(
-                "Un projet avec ce titre existe déjà : '" + titre + "'");
-        }
         // Validation utilisateur
         if (projet.getUtilisateur() == null || projet.getUtilisateur().getId() == null) {
             throw new IllegalArgumentException("Un utilisateur valide doit être associé au projet");
         }
-        // Vérification existence de l'utilisateur
-        Utilisateur utilisateur = em.find(
-            Utilisateur.class, projet.getUtilisateur().getId());
-        if (utilisateur == null) {
-            throw new IllegalArgumentException("L'utilisateur spécifié n'existe pas");
-        }
         // Dates : si date de création non fournie, on met aujourd'hui
         if (projet.getDateCreation() == null) {
             projet.setDateCreation(LocalDate.now());
@@ -65,45 +253,195 @@ public class ProjetManagerImpl implements ProjetManager {
                 "La date de terminaison doit être postérieure à la date de création");
         }
         // Statut par défaut
-        if (projet.getStatut() == null || projet.getStatut().trim().isEmpty()) {
-            projet.setStatut("EN_ATTENTE");
+        if (projet.getStatut() == null) {
+            projet.setStatut(StatutProjet.EN_ATTENTE);
         }
         // Technologie obligatoire
         if (projet.getTechnologie() == null || projet.getTechnologie().trim().isEmpty()) {
             throw new IllegalArgumentException("La technologie est obligatoire");
         }
-        // Persistance
-        em.persist(projet);
     }
 
+    // Découpe une requête "... IN :valeurs" pour rester sous les limites de paramètres des SGBD
+    private <T, V> List<T> selectionnerParLots(String jpql, Class<T> type, Collection<V> valeurs) {
+        List<T> resultats = new ArrayList<>();
+        for (List<V> lot : lots(valeurs)) {
+            resultats.addAll(em.createQuery(jpql, type)
+                .setParameter("valeurs", lot)
+                .getResultList());
+        }
+        return resultats;
+    }
+
+    // Lots d'au plus TAILLE_LOT_IN valeurs, pour les clauses IN
+    private static <V> List<List<V>> lots(Collection<V> valeurs) {
+        List<V> liste = new ArrayList<>(valeurs);
+        List<List<V>> lots = new ArrayList<>();
+        for (int debut = 0; debut < liste.size(); debut += TAILLE_LOT_IN) {
+            lots.add(liste.subList(debut, Math.min(debut + TAILLE_LOT_IN, liste.size())));
+        }
+        return lots;
+    }
 
     @Override
     public Projet trouverProjetParId(Long id) {
-        return em.find(Projet.class, id);
+        InstantaneProjet instantane = caches.projets().obtenir(id, cle -> {
+            // Le propriétaire est chargé dans la même requête : l'instantané en copie le nom
+            Projet p = em.find(Projet.class, cle, graphe(Projet.class, GrapheChargement.WITH_OWNER));
+            return p == null ? null : InstantaneProjet.de(p);
+        });
+        return instantane == null ? null : instantane.versEntite();
     }
 
     @Override
-    public List<Projet> listerTousLesProjets() {
-        return em.createQuery("SELECT p FROM Projet p", Projet.class).getResultList();
+    public List<ProjetSummary> listerTousLesProjets() {
+        return em.createQuery(ProjetSummary.SELECT, ProjetSummary.class).getResultList();
     }
 
     @Override
-    public List<Projet> listerProjetsParTechnologie(String technologie) {
-        return em.createQuery("SELECT p FROM Projet p WHERE p.technologie = :tech", Projet.class)
+    public List<ProjetSummary> listerProjetsParTechnologie(String technologie) {
+        return em.createQuery(ProjetSummary.SELECT + " WHERE p.technologie = :tech", ProjetSummary.class)
                 .setParameter("tech", technologie)
                 .getResultList();
     }
 
     @Override
     public void mettreAJourProjet(Projet projet) {
-        em.merge(projet);
+        // Valeurs avant modification, pour corriger les compteurs
+        Projet existant = projet.getId() != null ? em.find(Projet.class, projet.getId()) : null;
+        String ancienneTechnologie = existant != null ? existant.getTechnologie() : null;
+        StatutProjet ancienStatut = existant != null ? existant.getStatut() : null;
+        Long ancienProprietaire = existant != null ? proprietaire(existant) : null;
+        // Sans version, merge prendrait l'objet pour une nouvelle ligne : on reprend celle en base
+        if (existant != null && projet.getVersion() == null) {
+            projet.setVersion(existant.getVersion());
+        }
+        // Propriétaire reçu avec son id seul (sans version) : merge le refuserait, on passe une référence gérée
+        if (projet.getUtilisateur() != null && projet.getUtilisateur().getId() != null) {
+            Long utilisateurId = projet.getUtilisateur().getId();
+            if (em.find(Utilisateur.class, utilisateurId) == null) {
+                throw new IllegalArgumentException("L'utilisateur spécifié n'existe pas");
+            }
+            projet.setUtilisateur(em.getReference(Utilisateur.class, utilisateurId));
+        }
+
+        Projet modifie = em.merge(projet);
+        invaliderProjet(modifie.getId());
+        Long proprietaire = proprietaire(modifie);
+        if (existant == null || !Objects.equals(ancienProprietaire, proprietaire)) {
+            invaliderListes(ancienProprietaire, ancienStatut, null);
+            invaliderListes(proprietaire, modifie.getStatut(), null);
+            if (existant != null) {
+                ajusterCompteursUtilisateur(ancienProprietaire, new VariationCompteurs().ajouter(ancienStatut, -1));
+            }
+            ajusterCompteursUtilisateur(proprietaire, new VariationCompteurs().ajouter(modifie.getStatut(), 1));
+        } else if (ancienStatut != modifie.getStatut()) {
+            invaliderListes(proprietaire, ancienStatut, modifie.getStatut());
+            ajusterCompteursUtilisateur(proprietaire, new VariationCompteurs().changer(ancienStatut, modifie.getStatut(), 1));
+        }
+        journaliser(existant != null ? Changement.Type.MODIFICATION : Changement.Type.CREATION,
+            Changement.Entite.PROJET, List.of(modifie.getId()));
+        String technologie = modifie.getTechnologie();
+        StatutProjet statut = modifie.getStatut();
+        ajusterStatistiques(() -> {
+            if (existant != null) {
+                statistiques.ajuster(ancienneTechnologie, ancienStatut, -1);
+            }
+            statistiques.ajuster(technologie, statut, 1);
+        });
+        indexerApresCommit(modifie);
+    }
+
+    @Override
+    public Projet modifierProjet(Long id, ModificationProjet modification) {
+        if (modification.getVersion() == null) {
+            throw new IllegalArgumentException("La version du projet est obligatoire");
+        }
+        Projet projet = em.find(Projet.class, id, graphe(Projet.class, GrapheChargement.WITH_OWNER));
+        if (projet == null) {
+            return null;
+        }
+        if (!modification.getVersion().equals(projet.getVersion())) {
+            throw new OptimisticLockException("Le projet " + id + " a été modifié entre-temps (version "
+                + projet.getVersion() + ", reçue " + modification.getVersion() + ")", null, projet);
+        }
+        String ancienneTechnologie = projet.getTechnologie();
+        StatutProjet ancienStatut = projet.getStatut();
+
+        String titre = modification.getTitre();
+        if (titre != null && !titre.equals(projet.getTitre())) {
+            if (titre.trim().isEmpty()) {
+                throw new IllegalArgumentException("Le titre du projet est obligatoire");
+            }
+            Long count = em.createQuery(
+                    "SELECT COUNT(p) FROM Projet p WHERE p.titre = :titre AND p.id <> :id", Long.class)
+                .setParameter("titre", titre)
+                .setParameter("id", id)
+                .getSingleResult();
+            if (count > 0) {
+                throw new IllegalArgumentException("Un projet avec ce titre existe déjà : '" + titre + "'");
+            }
+            projet.setTitre(titre);
+        }
+        if (modification.getTechnologie() != null) {
+            if (modification.getTechnologie().trim().isEmpty()) {
+                throw new IllegalArgumentException("La technologie est obligatoire");
+            }
+            projet.setTechnologie(modification.getTechnologie());
+        }
+        if (modification.getDescription() != null) {
+            projet.setDescription(modification.getDescription());
+        }
+        if (modification.getDateCreation() != null) {
+            projet.setDateCreation(modification.getDateCreation());
+        }
+        if (modification.getDateTerminaison() != null) {
+            projet.setDateTerminaison(modification.getDateTerminaison());
+        }
+        if (modification.getStatut() != null) {
+            projet.setStatut(modification.getStatut());
+        }
+        if (projet.getDateCreation() != null && projet.getDateTerminaison() != null
+                && projet.getDateTerminaison().isBefore(projet.getDateCreation())) {
+            throw new IllegalArgumentException(
+                "La date de terminaison doit être postérieure à la date de création");
+        }
+
+        // UPDATE immédiat (colonnes modifiées seulement, @DynamicUpdate) : un conflit de version
+        // remonte ici en OptimisticLockException plutôt qu'au commit
+        em.flush();
+        invaliderProjet(id);
+        journaliser(Changement.Type.MODIFICATION, Changement.Entite.PROJET, List.of(id));
+        String technologie = projet.getTechnologie();
+        StatutProjet statut = projet.getStatut();
+        if (ancienStatut != statut) {
+            invaliderListes(proprietaire(projet), ancienStatut, statut);
+            ajusterCompteursUtilisateur(proprietaire(projet), new VariationCompteurs().changer(ancienStatut, statut, 1));
+        }
+        if (!Objects.equals(ancienneTechnologie, technologie) || ancienStatut != statut) {
+            ajusterStatistiques(() -> {
+                statistiques.ajuster(ancienneTechnologie, ancienStatut, -1);
+                statistiques.ajuster(technologie, statut, 1);
+            });
+        }
+        indexerApresCommit(projet);
+        // Copie détachée, propriétaire compris, sérialisable après la transaction
+        return InstantaneProjet.de(projet).versEntite();
     }
 
     @Override
     public void supprimerProjet(Long id) {
         Projet p = em.find(Projet.class, id);
         if (p != null) {
+            String technologie = p.getTechnologie();
+            StatutProjet statut = p.getStatut();
             em.remove(p);
+            invaliderProjet(id);
+            invaliderListes(proprietaire(p), statut, null);
+            ajusterCompteursUtilisateur(proprietaire(p), new VariationCompteurs().ajouter(statut, -1));
+            journaliser(Changement.Type.SUPPRESSION, Changement.Entite.PROJET, List.of(id));
+            ajusterStatistiques(() -> statistiques.ajuster(technologie, statut, -1));
+            apresCommit(() -> recherche.supprimer(id));
         }
     }
 
@@ -124,7 +462,13 @@ public class ProjetManagerImpl implements ProjetManager {
             // OK, email disponible
         }
         
+        if (utilisateur.getMot_de_passe() != null) {
+            utilisateur.setMot_de_passe(HachageMotDePasse.hacher(utilisateur.getMot_de_passe()));
+        }
+        // Inscription publique : le rôle reçu (admin...) n'est jamais repris
+        utilisateur.setRole(Utilisateur.ROLE_UTILISATEUR);
         em.persist(utilisateur);
+        journaliser(Changement.Type.CREATION, Changement.Entite.UTILISATEUR, List.of(utilisateur.getId()));
     }
 
     @Override
@@ -135,13 +479,35 @@ public class ProjetManagerImpl implements ProjetManager {
     }
 
     @Override
-    public void mettreAJourUtilisateur(Utilisateur utilisateur) {
-        em.merge(utilisateur);
+    public void mettreAJourUtilisateur(Utilisateur utilisateur, boolean roleModifiable) {
+        Utilisateur existant = utilisateur.getId() == null ? null : em.find(Utilisateur.class, utilisateur.getId());
+        // Sans version, merge prendrait l'objet pour une nouvelle ligne : on reprend celle en base
+        if (existant != null && utilisateur.getVersion() == null) {
+            utilisateur.setVersion(existant.getVersion());
+        }
+        // Le rôle reçu n'est repris que d'un administrateur ; absent, on garde l'actuel
+        if (!roleModifiable || utilisateur.getRole() == null) {
+            utilisateur.setRole(existant != null ? existant.getRole() : Utilisateur.ROLE_UTILISATEUR);
+        }
+        if (utilisateur.getMot_de_passe() == null) {
+            // Le mot de passe n'est jamais renvoyé au client : absent du corps, on garde l'actuel
+            if (existant != null) {
+                utilisateur.setMot_de_passe(existant.getMot_de_passe());
+            }
+        } else {
+            // Toujours haché, même au format pbkdf2$... : une empreinte fournie par le client
+            // (coût au rabais, par exemple) n'est jamais stockée telle quelle
+            utilisateur.setMot_de_passe(HachageMotDePasse.hacher(utilisateur.getMot_de_passe()));
+        }
+        Utilisateur modifie = em.merge(utilisateur);
+        invaliderUtilisateur(modifie.getId());
+        journaliser(existant != null ? Changement.Type.MODIFICATION : Changement.Type.CREATION,
+            Changement.Entite.UTILISATEUR, List.of(modifie.getId()));
     }
     
 
     @Override
-    public Utilisateur mettreAJourUtilisateurParId(Long id, Utilisateur utilisateurModifie) {
+    public Utilisateur mettreAJourUtilisateurParId(Long id, Utilisateur utilisateurModifie, boolean roleModifiable) {
         // 1. Récupérer l'utilisateur existant
         Utilisateur existingUser = em.find(Utilisateur.class, id);
         if (existingUser == null) {
@@ -174,13 +540,16 @@ public class ProjetManagerImpl implements ProjetManager {
         }
         
         if (utilisateurModifie.getMot_de_passe() != null) {
-            existingUser.setMot_de_passe(utilisateurModifie.getMot_de_passe());
+            existingUser.setMot_de_passe(HachageMotDePasse.hacher(utilisateurModifie.getMot_de_passe()));
         }
         
-        if (utilisateurModifie.getRole() != null) {
+        if (roleModifiable && utilisateurModifie.getRole() != null) {
             existingUser.setRole(utilisateurModifie.getRole());
         }
 
+        invaliderUtilisateur(id);
+        journaliser(Changement.Type.MODIFICATION, Changement.Entite.UTILISATEUR, List.of(id));
+
         // La transaction est gérée automatiquement par le conteneur EJB
         return existingUser; // Pas besoin de merge, les changements sont suivis automatiquement
     }
@@ -190,100 +559,851 @@ public class ProjetManagerImpl implements ProjetManager {
     public void supprimerUtilisateur(Long id) {
         Utilisateur u = em.find(Utilisateur.class, id);
         if (u != null) {
+            // Les projets partent en cascade : on relève leur répartition avant suppression
+            List<Object[]> repartition = em.createQuery(
+                    "SELECT p.technologie, p.statut, COUNT(p) FROM Projet p"
+                    + " WHERE p.utilisateur.id = :id GROUP BY p.technologie, p.statut", Object[].class)
+                .setParameter("id", id)
+                .getResultList();
+            List<Long> projetIds = em.createQuery(
+                    "SELECT p.id FROM Projet p WHERE p.utilisateur.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultList();
             em.remove(u);
+            invaliderUtilisateur(id);
+            Runnable listes = () -> caches.listes().invaliderGroupe(id);
+            listes.run();
+            apresCommit(listes);
+            journaliser(Changement.Type.SUPPRESSION, Changement.Entite.PROJET, projetIds);
+            journaliser(Changement.Type.SUPPRESSION, Changement.Entite.UTILISATEUR, List.of(id));
+            ajusterStatistiques(() -> {
+                for (Object[] ligne : repartition) {
+                    statistiques.ajuster((String) ligne[0], (StatutProjet) ligne[1], -(Long) ligne[2]);
+                }
+            });
+            apresCommit(() -> projetIds.forEach(recherche::supprimer));
         }
     }
 
     @Override
     public List<Utilisateur> listerTousLesUtilisateurs() {
-        return em.createQuery("SELECT u FROM Utilisateur u", Utilisateur.class).getResultList();
+        return listerTousLesUtilisateurs(GrapheChargement.SUMMARY);
     }
-    
-    public Map<String, Long> stat() {
-        List<Object[]> results = em.createQuery(
-            "SELECT p.technologie, COUNT(p) FROM Projet p GROUP BY p.technologie", Object[].class
-        ).getResultList();
 
-        Map<String, Long> stats = new HashMap<>();
-        for (Object[] result : results) {
-            stats.put((String) result[0], (Long) result[1]);
+    @Override
+    public int recalculerCompteursUtilisateurs() {
+        // Limité aux lignes qui ont dérivé (écriture hors application, opération groupée concurrente
+        // d'une création...), journalisées pour que les lecteurs et les ETag des listes le voient
+        String total = "(SELECT COUNT(p) FROM Projet p WHERE p.utilisateur = u)";
+        String enCours = "(SELECT COUNT(p) FROM Projet p WHERE p.utilisateur = u AND p.statut = :enCours)";
+        String termines = "(SELECT COUNT(p) FROM Projet p WHERE p.utilisateur = u AND p.statut = :termine)";
+        String enAttente = "(SELECT COUNT(p) FROM Projet p WHERE p.utilisateur = u AND p.statut = :enAttente)";
+        List<Long> derives = em.createQuery("SELECT u.id FROM Utilisateur u WHERE u.nbProjets <> " + total
+                + " OR u.nbProjetsEnCours <> " + enCours + " OR u.nbProjetsTermines <> " + termines
+                + " OR u.nbProjetsEnAttente <> " + enAttente, Long.class)
+            .setParameter("enCours", StatutProjet.EN_COURS)
+            .setParameter("termine", StatutProjet.TERMINE)
+            .setParameter("enAttente", StatutProjet.EN_ATTENTE)
+            .getResultList();
+        if (derives.isEmpty()) {
+            return 0;
         }
-        return stats;
+        int corriges = 0;
+        for (List<Long> lot : lots(derives)) {
+            corriges += em.createQuery("UPDATE Utilisateur u SET u.nbProjets = " + total
+                    + ", u.nbProjetsEnCours = " + enCours + ", u.nbProjetsTermines = " + termines
+                    + ", u.nbProjetsEnAttente = " + enAttente + " WHERE u.id IN :ids")
+                .setParameter("enCours", StatutProjet.EN_COURS)
+                .setParameter("termine", StatutProjet.TERMINE)
+                .setParameter("enAttente", StatutProjet.EN_ATTENTE)
+                .setParameter("ids", lot)
+                .executeUpdate();
+        }
+        journaliser(Changement.Type.MODIFICATION, Changement.Entite.UTILISATEUR, derives);
+        Runnable invalidation = () -> caches.utilisateurs().vider();
+        invalidation.run();
+        apresCommit(invalidation);
+        return corriges;
+    }
+
+    @Schedule(hour = "4", persistent = false)
+    void recalculerCompteursPlanifie() {
+        recalculerCompteursUtilisateurs();
     }
     
     @Override
-    public List<Projet> listerProjetsEnCours() {
-        // Supposons que tu utilises une EntityManager appelé em
-        return em.createQuery("SELECT p FROM Projet p WHERE p.statut = :statut", Projet.class)
-                 .setParameter("statut", "EN_COURS")
-                 .getResultList();
+    public Map<String, Long> stat() {
+        // Lecture des compteurs en mémoire, aucune requête
+        return statistiques.parTechnologie();
     }
 
     @Override
-    public List<Projet> listerProjetsTermines() {
-        return em.createQuery("SELECT p FROM Projet p WHERE p.statut = :statut", Projet.class)
-                 .setParameter("statut", "TERMINE")
-                 .getResultList();
+    public Map<String, Long> statParStatut() {
+        return statistiques.parStatut();
     }
 
     @Override
-    public List<Projet> listerProjetsEnAttente() {
-        return em.createQuery("SELECT p FROM Projet p WHERE p.statut = :statut", Projet.class)
-                 .setParameter("statut", "EN_ATTENTE")
+    public long revisionStatistiques() {
+        return statistiques.revision();
+    }
+    
+    @Override
+    public TableauDeBord tableauDeBord(Long userId) {
+        String jpql = "SELECT p.statut, p.technologie, COUNT(p) FROM Projet p"
+                + (userId != null ? " WHERE p.utilisateur.id = :userId" : "")
+                + " GROUP BY p.statut, p.technologie";
+        TypedQuery<Object[]> query = em.createQuery(jpql, Object[].class);
+        if (userId != null) {
+            query.setParameter("userId", userId);
+        }
+        TableauDeBord tableau = new TableauDeBord();
+        for (Object[] ligne : query.getResultList()) {
+            tableau.ajouter((StatutProjet) ligne[0], (String) ligne[1], (Long) ligne[2]);
+        }
+        return tableau;
+    }
+    
+    @Override
+    public List<ProjetSummary> listerProjetsParStatut(StatutProjet statut) {
+        return em.createQuery(ProjetSummary.SELECT + " WHERE p.statut = :statut", ProjetSummary.class)
+                 .setParameter("statut", statut)
                  .getResultList();
     }
 
 
 	@Override
 	public Utilisateur trouverUtilisateurParId(Long id) {
-		return em.find(Utilisateur.class, id);
+		InstantaneUtilisateur instantane = caches.utilisateurs().obtenir(id, cle -> {
+			Utilisateur u = em.find(Utilisateur.class, cle);
+			return u == null ? null : InstantaneUtilisateur.de(u);
+		});
+		return instantane == null ? null : instantane.versEntite();
 	}
 
 	@Override
 	public Utilisateur connecterUtilisateur(String email, String mot_de_passe) {
-	    try {
-	        Utilisateur utilisateur = trouverUtilisateurParEmail(email);
-	        // Vérifie seulement le mot de passe sans vérifier le rôle
-	        if (utilisateur != null && utilisateur.getMot_de_passe().equals(mot_de_passe)) {
-	            return utilisateur;
-	        }
+	    if (email == null || mot_de_passe == null) {
+	        return null;
+	    }
+	    List<IdentifiantsConnexion> trouves = em.createQuery(IdentifiantsConnexion.SELECT, IdentifiantsConnexion.class)
+	            .setParameter("email", email)
+	            .getResultList();
+	    if (trouves.isEmpty()) {
+	        // Aucun utilisateur avec cet email : même coût qu'un mauvais mot de passe
+	        HachageMotDePasse.verifierFactice(mot_de_passe);
 	        return null;
-	    } catch (NoResultException e) {
-	        return null; // Aucun utilisateur trouvé avec cet email
 	    }
+	    IdentifiantsConnexion identifiants = trouves.get(0);
+	    String stocke = identifiants.motDePasse();
+	    if (stocke == null) {
+	        return null;
+	    }
+	    // Une vérification réussie récemment avec la même valeur stockée évite de refaire le PBKDF2
+	    Boolean valide = caches.connexions().obtenir(
+	            HachageMotDePasse.cleVerification(email, stocke, mot_de_passe),
+	            cle -> HachageMotDePasse.verifier(mot_de_passe, stocke) ? Boolean.TRUE : null);
+	    if (valide == null) {
+	        return null;
+	    }
+	    if (HachageMotDePasse.doitEtreRehache(stocke)) {
+	        // Mot de passe historique en clair ou coût relevé depuis : on réécrit l'empreinte
+	        em.createQuery("UPDATE Utilisateur u SET u.mot_de_passe = :nouveau WHERE u.id = :id AND u.mot_de_passe = :ancien")
+	          .setParameter("nouveau", HachageMotDePasse.hacher(mot_de_passe))
+	          .setParameter("id", identifiants.id())
+	          .setParameter("ancien", stocke)
+	          .executeUpdate();
+	    }
+	    // Compteurs non lus : null, donc absents de la réponse
+	    return new InstantaneUtilisateur(identifiants.id(), identifiants.nom(), email, identifiants.role(), null,
+	            null, null, null, null).versEntite();
 	}
 	
 	@Override
-	public List<Projet> getProjetsByUserId(Long userId) {
-		return em.createQuery("SELECT p FROM Projet p WHERE p.utilisateur.id = :userId", Projet.class)
-	             .setParameter("userId", userId)
-	             .getResultList();
+	public List<ProjetSummary> getProjetsByUserId(Long userId) {
+		List<Long> ids = idsDuProprietaire(userId, null);
+		if (ids == LISTE_TROP_LONGUE) {
+			return em.createQuery(ProjetSummary.SELECT + " WHERE p.utilisateur.id = :userId", ProjetSummary.class)
+		             .setParameter("userId", userId)
+		             .getResultList();
+		}
+		return resumes(ids, userId, null);
 	}
 	
 	@Override
-    public List<Projet> getProjetsByUserAndStatut(Long userId, String statut) {
-        return em.createQuery(
-                "SELECT p FROM Projet p WHERE p.utilisateur.id = :userId AND p.statut = :statut", 
-                Projet.class)
-            .setParameter("userId", userId)
-            .setParameter("statut", statut)
-            .getResultList();
+    public List<ProjetSummary> getProjetsByUserAndStatut(Long userId, StatutProjet statut) {
+        List<Long> ids = idsDuProprietaire(userId, statut);
+        if (ids == LISTE_TROP_LONGUE) {
+            return em.createQuery(
+                    ProjetSummary.SELECT + " WHERE p.utilisateur.id = :userId AND p.statut = :statut",
+                    ProjetSummary.class)
+                .setParameter("userId", userId)
+                .setParameter("statut", statut)
+                .getResultList();
+        }
+        return resumes(ids, userId, statut);
+    }
+
+    // Ids triés des projets du propriétaire (tous si statut est null), depuis le cache des listes ;
+    // LISTE_TROP_LONGUE, mise en cache elle aussi, renvoie l'appelant à la requête filtrée
+    private List<Long> idsDuProprietaire(Long userId, StatutProjet statut) {
+        return caches.listes().obtenir(new CacheEntites.CleListe(userId, statut), cle -> {
+            TypedQuery<Long> query = em.createQuery(statut == null
+                    ? "SELECT p.id FROM Projet p WHERE p.utilisateur.id = :userId ORDER BY p.id"
+                    : "SELECT p.id FROM Projet p WHERE p.utilisateur.id = :userId AND p.statut = :statut ORDER BY p.id",
+                    Long.class)
+                .setParameter("userId", userId)
+                .setMaxResults(LISTE_IDS_MAX + 1);
+            if (statut != null) {
+                query.setParameter("statut", statut);
+            }
+            List<Long> ids = query.getResultList();
+            return ids.size() > LISTE_IDS_MAX ? LISTE_TROP_LONGUE : List.copyOf(ids);
+        });
+    }
+
+    // Contenu des projets lu dans le cache projets, les absents en une requête IN.
+    // Un projet qui n'appartient plus à la liste (lue juste avant son invalidation) est écarté
+    private List<ProjetSummary> resumes(List<Long> ids, Long userId, StatutProjet statut) {
+        Map<Long, InstantaneProjet> instantanes = caches.projets().obtenirTous(ids, manquants -> {
+            Map<Long, InstantaneProjet> charges = new HashMap<>();
+            selectionnerParLots("SELECT p FROM Projet p LEFT JOIN FETCH p.utilisateur WHERE p.id IN :valeurs",
+                    Projet.class, manquants)
+                .forEach(p -> charges.put(p.getId(), InstantaneProjet.de(p)));
+            return charges;
+        });
+        List<ProjetSummary> resumes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            InstantaneProjet projet = instantanes.get(id);
+            if (projet != null && userId.equals(projet.utilisateurId())
+                    && (statut == null || statut == projet.statut())) {
+                resumes.add(projet.resume());
+            }
+        }
+        return resumes;
     }
 
+    // Page de ids > after prise dans la liste en cache, même forme que pageSuivante
+    private Page<ProjetSummary> pageDuProprietaire(List<Long> ids, Long userId, StatutProjet statut,
+            Long after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("La taille de page doit être strictement positive");
+        }
+        int taille = Math.min(limit, TAILLE_PAGE_MAX);
+        int debut = after == null ? 0 : Collections.binarySearch(ids, after);
+        if (debut < 0) {
+            debut = -debut - 1;
+        } else if (after != null) {
+            debut++;
+        }
+        int fin = Math.min(debut + taille, ids.size());
+        List<ProjetSummary> page = resumes(ids.subList(debut, fin), userId, statut);
+        return new Page<>(page, fin < ids.size() ? ids.get(fin - 1) : null);
+    }
+
+    // ===== Listes paginées par curseur (keyset sur l'id) =====
+
     @Override
-    public List<Projet> getProjetsEnCoursByUser(Long userId) {
-        return getProjetsByUserAndStatut(userId, "EN_COURS");
+    public Page<ProjetSummary> listerTousLesProjets(Long after, int limit) {
+        return pageSuivante(em.createQuery(
+                ProjetSummary.SELECT + " WHERE p.id > :after ORDER BY p.id", ProjetSummary.class), after, limit);
     }
 
     @Override
-    public List<Projet> getProjetsTerminesByUser(Long userId) {
-        return getProjetsByUserAndStatut(userId, "TERMINE");
+    public Page<ProjetSummary> listerProjetsParTechnologie(String technologie, Long after, int limit) {
+        return pageSuivante(em.createQuery(
+                ProjetSummary.SELECT + " WHERE p.technologie = :tech AND p.id > :after ORDER BY p.id", ProjetSummary.class)
+                .setParameter("tech", technologie), after, limit);
     }
 
     @Override
-    public List<Projet> getProjetsEnAttenteByUser(Long userId) {
-        return getProjetsByUserAndStatut(userId, "EN_ATTENTE");
+    public Page<ProjetSummary> listerProjetsParStatut(StatutProjet statut, Long after, int limit) {
+        return pageSuivante(em.createQuery(
+                ProjetSummary.SELECT + " WHERE p.statut = :statut AND p.id > :after ORDER BY p.id", ProjetSummary.class)
+                .setParameter("statut", statut), after, limit);
     }
 
+    @Override
+    public Page<ProjetSummary> getProjetsByUserId(Long userId, Long after, int limit) {
+        List<Long> ids = idsDuProprietaire(userId, null);
+        if (ids != LISTE_TROP_LONGUE) {
+            return pageDuProprietaire(ids, userId, null, after, limit);
+        }
+        return pageSuivante(em.createQuery(
+                ProjetSummary.SELECT + " WHERE p.utilisateur.id = :userId AND p.id > :after ORDER BY p.id", ProjetSummary.class)
+                .setParameter("userId", userId), after, limit);
+    }
 
-}
\ No newline at end of file
+    @Override
+    public Page<ProjetSummary> getProjetsByUserAndStatut(Long userId, StatutProjet statut, Long after, int limit) {
+        List<Long> ids = idsDuProprietaire(userId, statut);
+        if (ids != LISTE_TROP_LONGUE) {
+            return pageDuProprietaire(ids, userId, statut, after, limit);
+        }
+        return pageSuivante(em.createQuery(
+                ProjetSummary.SELECT + " WHERE p.utilisateur.id = :userId AND p.statut = :statut"
+                + " AND p.id > :after ORDER BY p.id", ProjetSummary.class)
+                .setParameter("userId", userId)
+                .setParameter("statut", statut), after, limit);
+    }
+
+    @Override
+    public void exporterProjets(int tailleLot, Consumer<Projet> consommateur) {
+        if (tailleLot <= 0) {
+            throw new IllegalArgumentException("La taille de lot doit être strictement positive");
+        }
+        // Jointure sur l'utilisateur pour éviter un select par propriétaire,
+        // fetchSize pour que le driver lise le curseur par lots
+        try (Stream<Projet> flux = em.createQuery(
+                "SELECT p FROM Projet p LEFT JOIN FETCH p.utilisateur ORDER BY p.id", Projet.class)
+                .setHint("org.hibernate.fetchSize", tailleLot)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            Iterator<Projet> it = flux.iterator();
+            int lus = 0;
+            while (it.hasNext()) {
+                consommateur.accept(it.next());
+                // On vide le contexte de persistance pour garder une mémoire constante
+                if (++lus % tailleLot == 0) {
+                    em.clear();
+                }
+            }
+        }
+    }
+
+    // ===== Chargement par graphe d'entités =====
+
+    @Override
+    public Projet chargerProjet(Long id, GrapheChargement graphe) {
+        return em.find(Projet.class, id, graphe(Projet.class, graphe));
+    }
+
+    @Override
+    public Page<Projet> listerProjets(Long after, int limit, GrapheChargement graphe) {
+        return pageSuivante(em.createQuery(
+                "SELECT p FROM Projet p WHERE p.id > :after ORDER BY p.id", Projet.class)
+                .setHint(FETCH_GRAPH, em.getEntityGraph(graphe.nomPour(Projet.class))), after, limit, Projet::getId);
+    }
+
+    @Override
+    public Utilisateur chargerUtilisateur(Long id, GrapheChargement graphe) {
+        return em.find(Utilisateur.class, id, graphe(Utilisateur.class, graphe));
+    }
+
+    @Override
+    public List<Utilisateur> listerTousLesUtilisateurs(GrapheChargement graphe) {
+        return em.createQuery("SELECT u FROM Utilisateur u", Utilisateur.class)
+                .setHint(FETCH_GRAPH, em.getEntityGraph(graphe.nomPour(Utilisateur.class)))
+                .getResultList();
+    }
+
+    private Map<String, Object> graphe(Class<?> entite, GrapheChargement graphe) {
+        return Map.of(FETCH_GRAPH, em.getEntityGraph(graphe.nomPour(entite)));
+    }
+
+    private Page<ProjetSummary> pageSuivante(TypedQuery<ProjetSummary> query, Long after, int limit) {
+        return pageSuivante(query, after, limit, ProjetSummary::getId);
+    }
+
+    // Lit limit + 1 lignes : la ligne en trop indique seulement qu'une page suivante existe
+    private <T> Page<T> pageSuivante(TypedQuery<T> query, Long after, int limit, Function<T, Long> id) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("La taille de page doit être strictement positive");
+        }
+        int taille = Math.min(limit, TAILLE_PAGE_MAX);
+        List<T> projets = query
+                .setParameter("after", after == null ? 0L : after)
+                .setMaxResults(taille + 1)
+                .getResultList();
+        if (projets.size() <= taille) {
+            return new Page<>(projets, null);
+        }
+        List<T> page = new ArrayList<>(projets.subList(0, taille));
+        return new Page<>(page, id.apply(page.get(taille - 1)));
+    }
+
+    @Override
+    public Estampille estampilleProjets() {
+        return estampilleJournal("p");
+    }
+
+    @Override
+    public Estampille estampilleUtilisateurs() {
+        return estampilleJournal("u");
+    }
+
+    // Tête du journal, lue en base : même valeur sur toutes les instances et après un redémarrage.
+    // Toute écriture de projet ou d'utilisateur journalise, les deux collections partagent donc cette tête
+    // (les listes de projets exposent aussi le nom du propriétaire). Simple lecture : la numérotation
+    // se fait en tâche de fond (FluxChangements), une écriture est visible ici au plus une seconde après
+    private Estampille estampilleJournal(String prefixe) {
+        long seq = ((Number) em.createNativeQuery(
+                "SELECT valeur FROM sequence_id WHERE nom_sequence = 'Changement'")
+            .getSingleResult()).longValue();
+        Instant derniere = em.createQuery(
+                "SELECT MAX(c.horodatage) FROM Changement c WHERE c.seq IS NOT NULL", Instant.class)
+            .getSingleResult();
+        return new Estampille(prefixe + seq, derniere != null ? derniere.toEpochMilli() : 0);
+    }
+
+    @Override
+    public List<Changement> changements(long depuis, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit doit être strictement positif");
+        }
+        return em.createQuery("SELECT c FROM Changement c WHERE c.seq > :depuis ORDER BY c.seq", Changement.class)
+                .setParameter("depuis", depuis)
+                .setMaxResults(Math.min(limit, TAILLE_PAGE_MAX))
+                .setHint("org.hibernate.readOnly", true)
+                .getResultList();
+    }
+
+    @Override
+    public CompletableFuture<Void> attendreChangement(long depuis) {
+        return changements.attendre(depuis);
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> statistiquesCache() {
+        Map<String, Map<String, Long>> stats = caches.statistiques();
+        stats.put("recherche", recherche.statistiques());
+        return stats;
+    }
+
+    @Override
+    public Page<ProjetSummary> rechercherProjets(String requete, int offset, int limit) {
+        if (requete == null || requete.isBlank()) {
+            throw new IllegalArgumentException("Le texte recherché est obligatoire");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit doit être strictement positif");
+        }
+        if (offset < 0 || offset > RECHERCHE_OFFSET_MAX) {
+            throw new IllegalArgumentException("offset doit être compris entre 0 et " + RECHERCHE_OFFSET_MAX);
+        }
+        int taille = Math.min(limit, TAILLE_PAGE_MAX);
+        IndexInverse.Resultats resultats = recherche.rechercher(requete, offset, taille);
+
+        // Une requête IN pour la page, remise dans l'ordre de pertinence
+        Map<Long, ProjetSummary> parId = new HashMap<>();
+        if (!resultats.ids().isEmpty()) {
+            em.createQuery(ProjetSummary.SELECT + " WHERE p.id IN :ids", ProjetSummary.class)
+              .setParameter("ids", resultats.ids())
+              .getResultList()
+              .forEach(r -> parId.put(r.getId(), r));
+        }
+        List<ProjetSummary> items = new ArrayList<>(resultats.ids().size());
+        for (Long id : resultats.ids()) {
+            // Absent : supprimé entre la recherche et la lecture
+            ProjetSummary resume = parId.get(id);
+            if (resume != null) {
+                items.add(resume);
+            }
+        }
+        boolean suite = offset + taille < resultats.total() && offset + taille <= RECHERCHE_OFFSET_MAX;
+        return new Page<>(items, suite ? Long.valueOf(offset + taille) : null);
+    }
+
+    @Override
+    public Page<ProjetSummary> rechercher(ProjetFilter filtre) {
+        if (filtre.getLimit() <= 0) {
+            throw new IllegalArgumentException("limit doit être strictement positif");
+        }
+        if (filtre.getOffset() < 0 || filtre.getOffset() > FILTRE_OFFSET_MAX) {
+            throw new IllegalArgumentException("offset doit être compris entre 0 et " + FILTRE_OFFSET_MAX);
+        }
+        int taille = Math.min(filtre.getLimit(), TAILLE_PAGE_MAX);
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<ProjetSummary> cq = cb.createQuery(ProjetSummary.class);
+        Root<Projet> p = cq.from(Projet.class);
+        Join<Projet, Utilisateur> u = p.join("utilisateur", JoinType.LEFT);
+        cq.select(cb.construct(ProjetSummary.class, p.get("id"), p.get("titre"), p.get("description"), p.get("statut"),
+                p.get("technologie"), p.get("dateCreation"), p.get("dateTerminaison"), u.get("id"), u.get("nom")));
+
+        Map<ParameterExpression<?>, Object> valeurs = new HashMap<>();
+        cq.where(conditions(cb, p, filtre, valeurs));
+        cq.orderBy(ordre(cb, p, filtre.getTri()));
+
+        TypedQuery<ProjetSummary> query = lier(em.createQuery(cq), valeurs);
+        query.setFirstResult(filtre.getOffset()).setMaxResults(taille + 1);
+
+        // Un élément de plus que demandé : indique s'il reste une page
+        List<ProjetSummary> items = query.getResultList();
+        if (items.size() <= taille) {
+            return new Page<>(items, null);
+        }
+        int suivant = filtre.getOffset() + taille;
+        return new Page<>(new ArrayList<>(items.subList(0, taille)),
+                suivant <= FILTRE_OFFSET_MAX ? Long.valueOf(suivant) : null);
+    }
+
+    @Override
+    public int changerStatut(ProjetFilter filtre, StatutProjet statut, LocalDate dateTerminaison) {
+        if (statut == null) {
+            throw new IllegalArgumentException("Le statut est obligatoire");
+        }
+        verifierSelection(filtre);
+        // Un projet terminé sans date de terminaison le devient aujourd'hui
+        LocalDate date = dateTerminaison == null && statut == StatutProjet.TERMINE ? LocalDate.now() : dateTerminaison;
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        Selection selection = selection(cb, filtre, date);
+        if (selection.creesApres() > 0) {
+            throw new IllegalArgumentException(selection.creesApres() + " projet(s) créé(s) après le " + date
+                    + " : la date de terminaison doit être postérieure à la date de création");
+        }
+        if (selection.ids().isEmpty()) {
+            return 0;
+        }
+
+        // UPDATE des seuls ids verrouillés par la sélection, par lots IN ; la version est avancée
+        // comme le ferait Hibernate (verrou optimiste, ETag)
+        String jpql = "UPDATE Projet p SET p.statut = :statut, p.version = p.version + 1"
+                + (date != null ? ", p.dateTerminaison = :date" : "") + " WHERE p.id IN :ids";
+        int modifies = 0;
+        for (List<Long> lot : lots(selection.ids())) {
+            Query update = em.createQuery(jpql)
+                .setParameter("statut", statut)
+                .setParameter("ids", lot);
+            if (date != null) {
+                update.setParameter("date", date);
+            }
+            modifies += update.executeUpdate();
+        }
+
+        selection.ids().forEach(this::invaliderProjet);
+        selection.parProprietaire().forEach((utilisateurId, anciens) -> {
+            VariationCompteurs variation = new VariationCompteurs();
+            anciens.forEach((ancien, nombre) -> {
+                invaliderListes(utilisateurId, ancien, statut);
+                variation.changer(ancien, statut, nombre);
+            });
+            ajusterCompteursUtilisateur(utilisateurId, variation);
+        });
+        journaliser(Changement.Type.MODIFICATION, Changement.Entite.PROJET, selection.ids());
+        ajusterStatistiques(() -> selection.repartition().forEach((technologie, parStatut) -> parStatut.forEach((ancien, nombre) -> {
+            if (ancien != statut) {
+                statistiques.ajuster(technologie, ancien, -nombre);
+                statistiques.ajuster(technologie, statut, nombre);
+            }
+        })));
+        return modifies;
+    }
+
+    @Override
+    public int supprimerProjets(ProjetFilter filtre) {
+        verifierSelection(filtre);
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        Selection selection = selection(cb, filtre, null);
+        if (selection.ids().isEmpty()) {
+            return 0;
+        }
+
+        // DELETE des seuls ids verrouillés par la sélection : un projet créé entre-temps qui répondrait
+        // aux critères n'est pas touché, les compteurs, l'index et le journal couvrent exactement les lignes supprimées
+        int supprimes = 0;
+        for (List<Long> lot : lots(selection.ids())) {
+            supprimes += em.createQuery("DELETE FROM Projet p WHERE p.id IN :ids")
+                .setParameter("ids", lot)
+                .executeUpdate();
+        }
+
+        List<Long> ids = selection.ids();
+        ids.forEach(this::invaliderProjet);
+        selection.parProprietaire().forEach((utilisateurId, statuts) -> {
+            VariationCompteurs variation = new VariationCompteurs();
+            statuts.forEach((statut, nombre) -> {
+                invaliderListes(utilisateurId, statut, null);
+                variation.ajouter(statut, -nombre);
+            });
+            ajusterCompteursUtilisateur(utilisateurId, variation);
+        });
+        journaliser(Changement.Type.SUPPRESSION, Changement.Entite.PROJET, ids);
+        ajusterStatistiques(() -> selection.repartition().forEach((technologie, parStatut) ->
+            parStatut.forEach((statut, nombre) -> statistiques.ajuster(technologie, statut, -nombre))));
+        apresCommit(() -> ids.forEach(recherche::supprimer));
+        return supprimes;
+    }
+
+    // Un filtre vide désignerait toute la table : refusé pour les opérations groupées
+    private static void verifierSelection(ProjetFilter filtre) {
+        boolean vide = filtre == null
+                || (filtre.getIds() == null || filtre.getIds().isEmpty())
+                && filtre.getUserId() == null
+                && (filtre.getStatuts() == null || filtre.getStatuts().isEmpty())
+                && (filtre.getTechnologies() == null || filtre.getTechnologies().isEmpty())
+                && filtre.getCreeApres() == null && filtre.getCreeAvant() == null
+                && filtre.getTermineApres() == null && filtre.getTermineAvant() == null;
+        if (vide) {
+            throw new IllegalArgumentException("Au moins un critère (ids, userId, statut...) est obligatoire");
+        }
+        if (filtre.getIds() != null && filtre.getIds().size() > TAILLE_LOT_OPERATION) {
+            throw new IllegalArgumentException("Au plus " + TAILLE_LOT_OPERATION + " ids par opération");
+        }
+    }
+
+    // Projets visés par une opération groupée, lus et verrouillés (PESSIMISTIC_WRITE) avant l'écriture,
+    // qui ne porte ensuite que sur ces ids : ids pour les caches, l'index et le journal, répartition
+    // par (technologie, statut) pour corriger les compteurs, et par (propriétaire, statut) pour les
+    // listes en cache et les compteurs de l'utilisateur ; creesApres compte les projets créés après
+    // la date passée à selection (0 sans date)
+    private record Selection(List<Long> ids, Map<String, Map<StatutProjet, Long>> repartition,
+            Map<Long, Map<StatutProjet, Long>> parProprietaire, long creesApres) {
+    }
+
+    private Selection selection(CriteriaBuilder cb, ProjetFilter filtre, LocalDate creesApres) {
+        CriteriaQuery<Object[]> lecture = cb.createQuery(Object[].class);
+        Root<Projet> p = lecture.from(Projet.class);
+        Map<ParameterExpression<?>, Object> valeurs = new HashMap<>();
+        lecture.multiselect(p.get("id"), p.get("technologie"), p.get("statut"), p.get("utilisateur").get("id"),
+                    p.get("dateCreation"))
+               .where(conditions(cb, p, filtre, valeurs));
+        List<Long> ids = new ArrayList<>();
+        Map<String, Map<StatutProjet, Long>> repartition = new HashMap<>();
+        Map<Long, Map<StatutProjet, Long>> parProprietaire = new HashMap<>();
+        long incoherents = 0;
+        for (Object[] ligne : lier(em.createQuery(lecture), valeurs)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList()) {
+            ids.add((Long) ligne[0]);
+            if (creesApres != null && ligne[4] != null && ((LocalDate) ligne[4]).isAfter(creesApres)) {
+                incoherents++;
+            }
+            repartition.computeIfAbsent((String) ligne[1], t -> new HashMap<>())
+                       .merge((StatutProjet) ligne[2], 1L, Long::sum);
+            if (ligne[3] != null) {
+                parProprietaire.computeIfAbsent((Long) ligne[3], u -> new HashMap<>())
+                               .merge((StatutProjet) ligne[2], 1L, Long::sum);
+            }
+        }
+        return new Selection(ids, repartition, parProprietaire, incoherents);
+    }
+
+    // Valeurs toujours liées en paramètres : une même combinaison de critères donne le même SQL,
+    // donc le même plan côté Hibernate comme côté base, quelles que soient les valeurs
+    private static Predicate[] conditions(CriteriaBuilder cb, Root<Projet> p, ProjetFilter filtre,
+            Map<ParameterExpression<?>, Object> valeurs) {
+        List<Predicate> conditions = new ArrayList<>();
+        if (filtre.getIds() != null && !filtre.getIds().isEmpty()) {
+            conditions.add(p.get("id").in(parametre(cb, valeurs, Collection.class, List.copyOf(filtre.getIds()))));
+        }
+        // Clé étrangère lue sur la ligne du projet, sans jointure (utilisable aussi en UPDATE et DELETE)
+        if (filtre.getUserId() != null) {
+            conditions.add(cb.equal(p.get("utilisateur").get("id"), parametre(cb, valeurs, Long.class, filtre.getUserId())));
+        }
+        if (filtre.getStatuts() != null && !filtre.getStatuts().isEmpty()) {
+            conditions.add(p.get("statut").in(
+                    parametre(cb, valeurs, Collection.class, List.copyOf(filtre.getStatuts()))));
+        }
+        if (filtre.getTechnologies() != null && !filtre.getTechnologies().isEmpty()) {
+            conditions.add(p.get("technologie").in(
+                    parametre(cb, valeurs, Collection.class, List.copyOf(filtre.getTechnologies()))));
+        }
+        borner(cb, conditions, valeurs, p.get("dateCreation"), filtre.getCreeApres(), filtre.getCreeAvant());
+        borner(cb, conditions, valeurs, p.get("dateTerminaison"), filtre.getTermineApres(), filtre.getTermineAvant());
+        return conditions.toArray(new Predicate[0]);
+    }
+
+    private static <Q extends Query> Q lier(Q query, Map<ParameterExpression<?>, Object> valeurs) {
+        valeurs.forEach((parametre, valeur) -> query.setParameter(parametre.getName(), valeur));
+        return query;
+    }
+
+    private static <T> ParameterExpression<T> parametre(CriteriaBuilder cb, Map<ParameterExpression<?>, Object> valeurs,
+            Class<T> type, Object valeur) {
+        ParameterExpression<T> parametre = cb.parameter(type, "p" + valeurs.size());
+        valeurs.put(parametre, valeur);
+        return parametre;
+    }
+
+    // Bornes incluses, chacune facultative
+    private static void borner(CriteriaBuilder cb, List<Predicate> conditions, Map<ParameterExpression<?>, Object> valeurs,
+            Path<LocalDate> date, LocalDate debut, LocalDate fin) {
+        if (debut != null && fin != null && debut.isAfter(fin)) {
+            throw new IllegalArgumentException("Intervalle de dates vide : " + debut + " > " + fin);
+        }
+        if (debut != null) {
+            conditions.add(cb.greaterThanOrEqualTo(date, parametre(cb, valeurs, LocalDate.class, debut)));
+        }
+        if (fin != null) {
+            conditions.add(cb.lessThanOrEqualTo(date, parametre(cb, valeurs, LocalDate.class, fin)));
+        }
+    }
+
+    // Tri demandé puis id, pour un ordre total et des pages stables
+    private static List<Order> ordre(CriteriaBuilder cb, Root<Projet> p, String tri) {
+        String champ = tri == null || tri.isBlank() ? "id" : tri.trim();
+        boolean decroissant = champ.startsWith("-");
+        if (decroissant) {
+            champ = champ.substring(1);
+        }
+        if (!TRIS.contains(champ)) {
+            throw new IllegalArgumentException("Tri inconnu : " + tri + " (attendu : " + String.join(", ", TRIS) + ")");
+        }
+        Order principal = decroissant ? cb.desc(p.get(champ)) : cb.asc(p.get(champ));
+        if (champ.equals("id")) {
+            return List.of(principal);
+        }
+        return List.of(principal, cb.asc(p.get("id")));
+    }
+
+    // Valeurs relevées maintenant : l'entité peut encore changer d'ici le commit
+    private void indexerApresCommit(Projet projet) {
+        Long id = projet.getId();
+        String titre = projet.getTitre();
+        String description = projet.getDescription();
+        String technologie = projet.getTechnologie();
+        apresCommit(() -> recherche.indexer(id, titre, description, technologie));
+    }
+
+    // Invalidation immédiate, puis de nouveau après commit pour écarter une lecture
+    // concurrente qui aurait remis en cache l'état précédent
+    private void invaliderProjet(Long id) {
+        caches.projets().invalider(id);
+        apresCommit(() -> caches.projets().invalider(id));
+    }
+
+    // Listes (propriétaire, statut) dont l'appartenance d'un projet change ; statut null désigne
+    // la liste de tous les projets du propriétaire. Même double invalidation que invaliderProjet
+    private void invaliderListes(Long utilisateurId, StatutProjet... statuts) {
+        if (utilisateurId == null) {
+            return;
+        }
+        Runnable invalidation = () -> {
+            for (StatutProjet statut : statuts) {
+                caches.listes().invalider(new CacheEntites.CleListe(utilisateurId, statut));
+            }
+        };
+        invalidation.run();
+        apresCommit(invalidation);
+    }
+
+    // Variation des compteurs de projets d'un utilisateur : total et par statut (indice = ordinal)
+    private static final class VariationCompteurs {
+        private long total;
+        private final long[] parStatut = new long[StatutProjet.values().length];
+
+        // Projets créés (nombre positif) ou supprimés (négatif)
+        VariationCompteurs ajouter(StatutProjet statut, long nombre) {
+            total += nombre;
+            if (statut != null) {
+                parStatut[statut.ordinal()] += nombre;
+            }
+            return this;
+        }
+
+        // Projets passés d'un statut à l'autre, total inchangé
+        VariationCompteurs changer(StatutProjet ancien, StatutProjet nouveau, long nombre) {
+            if (ancien != null) {
+                parStatut[ancien.ordinal()] -= nombre;
+            }
+            if (nouveau != null) {
+                parStatut[nouveau.ordinal()] += nombre;
+            }
+            return this;
+        }
+
+        boolean nulle() {
+            return total == 0 && Arrays.stream(parStatut).allMatch(n -> n == 0);
+        }
+
+        long statut(StatutProjet statut) {
+            return parStatut[statut.ordinal()];
+        }
+    }
+
+    // Incrément relatif dans la transaction de l'écriture : deux créations concurrentes pour le même
+    // utilisateur se succèdent sur le verrou de sa ligne sans perdre de mise à jour. UPDATE JPQL non
+    // versionné : la version de l'utilisateur (ETag, verrou optimiste) n'avance pas
+    private void ajusterCompteursUtilisateur(Long utilisateurId, VariationCompteurs variation) {
+        if (utilisateurId == null || variation.nulle()) {
+            return;
+        }
+        em.createQuery("UPDATE Utilisateur u SET u.nbProjets = u.nbProjets + :total,"
+                + " u.nbProjetsEnCours = u.nbProjetsEnCours + :enCours,"
+                + " u.nbProjetsTermines = u.nbProjetsTermines + :termines,"
+                + " u.nbProjetsEnAttente = u.nbProjetsEnAttente + :enAttente WHERE u.id = :id")
+          .setParameter("total", variation.total)
+          .setParameter("enCours", variation.statut(StatutProjet.EN_COURS))
+          .setParameter("termines", variation.statut(StatutProjet.TERMINE))
+          .setParameter("enAttente", variation.statut(StatutProjet.EN_ATTENTE))
+          .setParameter("id", utilisateurId)
+          .executeUpdate();
+        Runnable invalidation = () -> caches.utilisateurs().invalider(utilisateurId);
+        invalidation.run();
+        apresCommit(invalidation);
+    }
+
+    // Id lu sur la référence, sans charger le propriétaire
+    private static Long proprietaire(Projet projet) {
+        return projet.getUtilisateur() != null ? projet.getUtilisateur().getId() : null;
+    }
+
+    // Les projets en cache embarquent le nom et l'email de leur propriétaire
+    private void invaliderUtilisateur(Long id) {
+        Runnable invalidation = () -> {
+            caches.utilisateurs().invalider(id);
+            caches.projets().invaliderGroupe(id);
+        };
+        invalidation.run();
+        apresCommit(invalidation);
+    }
+
+    // Insère seulement les événements, sans seq : aucune ligne partagée n'est verrouillée, les écritures
+    // restent concurrentes. La tâche de FluxChangements les numérote ensuite dans l'ordre où elle
+    // trouve les événements validés, sans trou : un lecteur ne peut rien sauter
+    private void journaliser(Changement.Type type, Changement.Entite entite, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Instant maintenant = Instant.now();
+        for (Long id : ids) {
+            em.persist(new Changement(type, entite, id, maintenant));
+        }
+    }
+
+    // Ajustements de StatistiquesProjets, appliqués après le commit comme apresCommit. La fenêtre
+    // ouverte dès beforeCompletion, sans attente, dit à une réconciliation concurrente si la base
+    // pouvait déjà compter l'écriture
+    private void ajusterStatistiques(Runnable ajustements) {
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            private long fenetre;
+
+            @Override
+            public void beforeCompletion() {
+                fenetre = statistiques.ouvrirEcriture();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == Status.STATUS_COMMITTED) {
+                        statistiques.appliquer(fenetre, ajustements);
+                    }
+                } finally {
+                    // Rollback avant beforeCompletion : aucune fenêtre ouverte
+                    if (fenetre != 0) {
+                        statistiques.fermerEcriture(fenetre);
+                    }
+                }
+            }
+        });
+    }
+
+    // Les compteurs en mémoire ne suivent que les écritures effectivement validées
+    private void apresCommit(Runnable action) {
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
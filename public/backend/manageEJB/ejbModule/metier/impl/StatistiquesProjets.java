@@ -0,0 +1,308 @@
+package metier.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import metier.dto.TableauDeBord;
+import metier.entities.StatutProjet;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Compteurs de projets par technologie et par statut, chargés au démarrage puis tenus à jour
+ * par ProjetManagerImpl après chaque commit. Une réconciliation périodique avec la base
+ * corrige l'éventuelle dérive (écritures hors application).
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class StatistiquesProjets {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    // Remplacés d'un bloc au chargement, incrémentés sans verrou ; reconcilier les corrige en place
+    private volatile Map<String, LongAdder> parTechnologie = new ConcurrentHashMap<>();
+    // Un compteur par valeur de StatutProjet (indice = ordinal), le dernier pour un statut absent
+    private volatile LongAdder[] parStatut = nouveauxCompteursStatut();
+
+    // Avancée à chaque changement des compteurs : les abonnés au flux des statistiques
+    // ne reçoivent une nouvelle valeur que si elle a bougé
+    private final AtomicLong revision = new AtomicLong();
+
+    // Au-delà, la réconciliation est reportée au passage suivant
+    private static final Duration ATTENTE_MAX = Duration.ofSeconds(30);
+
+    // Exclusif seulement pour ouvrir le journal d'une réconciliation et pour basculer ses comptes :
+    // jamais pendant le recomptage. Partagé pendant l'application des ajustements (appliquer),
+    // jamais pendant qu'une écriture attend son commit en tenant ses verrous de ligne
+    private final StampedLock verrou = new StampedLock();
+
+    // Numérote les fenêtres d'écriture, ouvertes avant le commit (ouvrirEcriture) et fermées
+    // une fois les ajustements appliqués (fermerEcriture)
+    private final AtomicLong fenetres = new AtomicLong();
+    private final Set<Long> ouvertes = ConcurrentHashMap.newKeySet();
+    // Fenêtre dont appliquer exécute les ajustements sur ce thread
+    private final ThreadLocal<Long> fenetreCourante = new ThreadLocal<>();
+
+    // Ajustements appliqués pendant une réconciliation, null hors réconciliation
+    private volatile Queue<Ajustement> journal;
+
+    private record Ajustement(long fenetre, String technologie, StatutProjet statut, long delta) {
+    }
+
+    // Comptes lus en base par un GROUP BY
+    private record Comptage(Map<String, Long> parTechnologie, long[] parStatut) {
+    }
+
+    @PostConstruct
+    public void charger() {
+        Comptage comptage = compter();
+        Map<String, LongAdder> technologies = new ConcurrentHashMap<>();
+        comptage.parTechnologie().forEach((technologie, nombre) -> compteur(technologies, technologie).add(nombre));
+        LongAdder[] statuts = nouveauxCompteursStatut();
+        for (int i = 0; i < statuts.length; i++) {
+            statuts[i].add(comptage.parStatut()[i]);
+        }
+        this.parTechnologie = technologies;
+        this.parStatut = statuts;
+    }
+
+    /**
+     * Recompte la base sans bloquer les écritures. Les ajustements appliqués pendant le comptage
+     * sont journalisés avec leur fenêtre : ceux des écritures ouvertes après la fin du comptage
+     * n'y sont pas, ils sont ajoutés au résultat. Pour une écriture à cheval sur le comptage, on ne
+     * sait pas si la base la comptait déjà : les compteurs qu'elle a touchés gardent leur valeur
+     * jusqu'à la prochaine réconciliation. Seule la bascule finale prend le verrou exclusif.
+     */
+    @Schedule(minute = "*/15", hour = "*", persistent = false)
+    public void reconcilier() {
+        Queue<Ajustement> ajustements = new ConcurrentLinkedQueue<>();
+        long debut;
+        Set<Long> ouvertesAuDebut;
+        long jeton = verrou.writeLock();
+        try {
+            // Sous le verrou : aucun ajustement n'est en cours d'application sans être journalisé
+            journal = ajustements;
+            debut = fenetres.get();
+            ouvertesAuDebut = new HashSet<>(ouvertes);
+        } finally {
+            verrou.unlockWrite(jeton);
+        }
+        try {
+            Comptage comptage = compter();
+            long fin = fenetres.get();
+            LongPredicate aCheval = fenetre -> fenetre == 0 || ouvertesAuDebut.contains(fenetre)
+                    || (fenetre > debut && fenetre <= fin);
+            // Les écritures à cheval doivent avoir appliqué leurs ajustements pour qu'on sache
+            // quels compteurs elles touchent
+            if (!attendreFermeture(aCheval)) {
+                return;
+            }
+            jeton = verrou.writeLock();
+            try {
+                basculer(comptage, ajustements, fin, aCheval);
+            } finally {
+                verrou.unlockWrite(jeton);
+            }
+        } finally {
+            journal = null;
+        }
+    }
+
+    // Appelé juste avant le commit d'une écriture (beforeCompletion), dans sa transaction ; ne bloque pas
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public long ouvrirEcriture() {
+        long fenetre = fenetres.incrementAndGet();
+        ouvertes.add(fenetre);
+        return fenetre;
+    }
+
+    // Après le commit : ajustements de l'écriture ouverte par ouvrirEcriture
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public void appliquer(long fenetre, Runnable ajustements) {
+        long jeton = verrou.readLock();
+        fenetreCourante.set(fenetre);
+        try {
+            ajustements.run();
+        } finally {
+            fenetreCourante.remove();
+            verrou.unlockRead(jeton);
+        }
+    }
+
+    // Appelé une fois les ajustements de l'écriture appliqués, ou après son rollback
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public void fermerEcriture(long fenetre) {
+        ouvertes.remove(fenetre);
+    }
+
+    // delta positif pour une création, négatif pour une suppression
+    public void ajuster(String technologie, StatutProjet statut, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        compteur(parTechnologie, technologie).add(delta);
+        compteur(parStatut, statut).add(delta);
+        Queue<Ajustement> ajustements = journal;
+        if (ajustements != null) {
+            // Hors appliquer, la fenêtre est inconnue (0) : l'ajustement compte comme à cheval
+            Long fenetre = fenetreCourante.get();
+            ajustements.add(new Ajustement(fenetre == null ? 0 : fenetre, technologie, statut, delta));
+        }
+        revision.incrementAndGet();
+    }
+
+    public long revision() {
+        return revision.get();
+    }
+
+    public Map<String, Long> parTechnologie() {
+        return instantane(parTechnologie);
+    }
+
+    public Map<String, Long> parStatut() {
+        LongAdder[] compteurs = parStatut;
+        Map<String, Long> resultat = new TreeMap<>();
+        for (int i = 0; i < compteurs.length; i++) {
+            long valeur = compteurs[i].sum();
+            if (valeur > 0) {
+                resultat.put(i < StatutProjet.values().length
+                        ? StatutProjet.values()[i].name() : TableauDeBord.NON_RENSEIGNE, valeur);
+            }
+        }
+        return resultat;
+    }
+
+    private Comptage compter() {
+        List<Object[]> lignes = em.createQuery(
+            "SELECT p.technologie, p.statut, COUNT(p) FROM Projet p GROUP BY p.technologie, p.statut", Object[].class
+        ).getResultList();
+
+        Map<String, Long> technologies = new HashMap<>();
+        long[] statuts = new long[StatutProjet.values().length + 1];
+        for (Object[] ligne : lignes) {
+            long nombre = (Long) ligne[2];
+            technologies.merge(cle((String) ligne[0]), nombre, Long::sum);
+            statuts[indice((StatutProjet) ligne[1])] += nombre;
+        }
+        return new Comptage(technologies, statuts);
+    }
+
+    // Attend, sans verrou, que les fenêtres retenues soient fermées ; false si l'une reste ouverte trop longtemps
+    private boolean attendreFermeture(LongPredicate retenue) {
+        long limite = System.nanoTime() + ATTENTE_MAX.toNanos();
+        while (ouvertes.stream().anyMatch(retenue::test)) {
+            if (System.nanoTime() > limite) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Sous le verrou exclusif : aucun ajustement en cours, le journal est complet
+    private void basculer(Comptage comptage, Queue<Ajustement> ajustements, long fin, LongPredicate aCheval) {
+        Map<String, Long> technologies = new HashMap<>(comptage.parTechnologie());
+        long[] statuts = comptage.parStatut().clone();
+        Set<String> technologiesDouteuses = new HashSet<>();
+        boolean[] statutsDouteux = new boolean[statuts.length];
+        for (Ajustement ajustement : ajustements) {
+            String technologie = cle(ajustement.technologie());
+            int statut = indice(ajustement.statut());
+            if (aCheval.test(ajustement.fenetre())) {
+                technologiesDouteuses.add(technologie);
+                statutsDouteux[statut] = true;
+            } else if (ajustement.fenetre() > fin) {
+                // Validée après le comptage : la base ne la comptait pas
+                technologies.merge(technologie, ajustement.delta(), Long::sum);
+                statuts[statut] += ajustement.delta();
+            }
+            // Sinon fermée avant le comptage : déjà comptée par la base
+        }
+
+        Map<String, Long> avantTechnologies = parTechnologie();
+        Map<String, Long> avantStatuts = parStatut();
+        Set<String> cles = new HashSet<>(parTechnologie.keySet());
+        cles.addAll(technologies.keySet());
+        for (String technologie : cles) {
+            if (!technologiesDouteuses.contains(technologie)) {
+                remplacer(compteur(parTechnologie, technologie), technologies.getOrDefault(technologie, 0L));
+            }
+        }
+        for (int i = 0; i < statuts.length; i++) {
+            if (!statutsDouteux[i]) {
+                remplacer(parStatut[i], statuts[i]);
+            }
+        }
+        // Écart avec la base (écriture hors application) : les abonnés du flux doivent être prévenus
+        if (!avantTechnologies.equals(parTechnologie()) || !avantStatuts.equals(parStatut())) {
+            revision.incrementAndGet();
+        }
+    }
+
+    private static void remplacer(LongAdder compteur, long valeur) {
+        compteur.reset();
+        compteur.add(valeur);
+    }
+
+    private static String cle(String technologie) {
+        return technologie == null ? TableauDeBord.NON_RENSEIGNE : technologie;
+    }
+
+    private static int indice(StatutProjet statut) {
+        return statut == null ? StatutProjet.values().length : statut.ordinal();
+    }
+
+    private static LongAdder[] nouveauxCompteursStatut() {
+        LongAdder[] compteurs = new LongAdder[StatutProjet.values().length + 1];
+        for (int i = 0; i < compteurs.length; i++) {
+            compteurs[i] = new LongAdder();
+        }
+        return compteurs;
+    }
+
+    private static LongAdder compteur(LongAdder[] compteurs, StatutProjet statut) {
+        return compteurs[indice(statut)];
+    }
+
+    private static LongAdder compteur(Map<String, LongAdder> compteurs, String cle) {
+        return compteurs.computeIfAbsent(cle(cle), k -> new LongAdder());
+    }
+
+    private static Map<String, Long> instantane(Map<String, LongAdder> compteurs) {
+        Map<String, Long> resultat = new TreeMap<>();
+        compteurs.forEach((cle, compteur) -> {
+            long valeur = compteur.sum();
+            if (valeur > 0) {
+                resultat.put(cle, valeur);
+            }
+        });
+        return resultat;
+    }
+}
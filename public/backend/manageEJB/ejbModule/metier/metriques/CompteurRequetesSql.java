@@ -0,0 +1,26 @@
+package metier.metriques;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Compte les ordres SQL préparés par Hibernate sur le thread courant
+ * (déclaré dans persistence.xml via hibernate.session_factory.statement_inspector).
+ * MetriquesInterceptor en déduit le nombre de requêtes de chaque appel métier.
+ */
+public class CompteurRequetesSql implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<long[]> COMPTEUR = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COMPTEUR.get()[0]++;
+        return sql;
+    }
+
+    // Total cumulé du thread courant ; on mesure un appel par différence
+    public static long courant() {
+        return COMPTEUR.get()[0];
+    }
+}
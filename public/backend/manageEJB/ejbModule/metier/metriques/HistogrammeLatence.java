@@ -0,0 +1,49 @@
+package metier.metriques;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences à seuils fixes (en secondes), au format des histogrammes Prometheus.
+ * Enregistrement sans verrou : un compteur par intervalle.
+ */
+public class HistogrammeLatence {
+
+    // Seuils supérieurs des intervalles, le dernier intervalle (+Inf) est implicite
+    static final double[] SEUILS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private final LongAdder[] intervalles = new LongAdder[SEUILS.length + 1];
+    private final LongAdder sommeNanos = new LongAdder();
+
+    public HistogrammeLatence() {
+        for (int i = 0; i < intervalles.length; i++) {
+            intervalles[i] = new LongAdder();
+        }
+    }
+
+    public void enregistrer(long nanos) {
+        double secondes = nanos / 1e9;
+        int i = 0;
+        while (i < SEUILS.length && secondes > SEUILS[i]) {
+            i++;
+        }
+        intervalles[i].increment();
+        sommeNanos.add(nanos);
+    }
+
+    // Lignes <nom>_bucket (cumulées), <nom>_sum et <nom>_count ; labels sans accolades, éventuellement vide
+    void exporter(StringBuilder sortie, String nom, String labels) {
+        String prefixe = labels.isEmpty() ? "" : labels + ",";
+        long cumul = 0;
+        for (int i = 0; i < intervalles.length; i++) {
+            cumul += intervalles[i].sum();
+            String seuil = i < SEUILS.length ? Double.toString(SEUILS[i]) : "+Inf";
+            sortie.append(nom).append("_bucket{").append(prefixe).append("le=\"").append(seuil).append("\"} ")
+                  .append(cumul).append('\n');
+        }
+        String accolades = labels.isEmpty() ? "" : "{" + labels + "}";
+        sortie.append(nom).append("_sum").append(accolades).append(' ').append(sommeNanos.sum() / 1e9).append('\n');
+        sortie.append(nom).append("_count").append(accolades).append(' ').append(cumul).append('\n');
+    }
+}
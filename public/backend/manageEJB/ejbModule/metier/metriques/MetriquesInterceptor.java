@@ -0,0 +1,30 @@
+package metier.metriques;
+
+import jakarta.ejb.EJB;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Chronomètre chaque appel métier et compte les ordres SQL qu'il a exécutés.
+ */
+public class MetriquesInterceptor {
+
+    @EJB
+    private RegistreMetriques registre;
+
+    @AroundInvoke
+    public Object mesurer(InvocationContext contexte) throws Exception {
+        String methode = "ProjetManager." + contexte.getMethod().getName();
+        long sqlAvant = CompteurRequetesSql.courant();
+        long debut = System.nanoTime();
+        boolean erreur = true;
+        try {
+            Object resultat = contexte.proceed();
+            erreur = false;
+            return resultat;
+        } finally {
+            registre.appelMethode(methode, System.nanoTime() - debut,
+                    CompteurRequetesSql.courant() - sqlAvant, erreur);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package metier.metriques;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métriques de l'application, exportées au format texte Prometheus :
+ * requêtes HTTP par route (gabarit de chemin, pas l'URL brute) et appels de ProjetManager.
+ * Alimenté par MetriquesFilter (manageWeb) et MetriquesInterceptor.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class RegistreMetriques {
+
+    private static final class MetriquesRoute {
+        final LongAdder requetes2xx = new LongAdder();
+        final LongAdder requetes3xx = new LongAdder();
+        final LongAdder requetes4xx = new LongAdder();
+        final LongAdder requetes5xx = new LongAdder();
+        final LongAdder enCours = new LongAdder();
+        final HistogrammeLatence latences = new HistogrammeLatence();
+    }
+
+    private static final class MetriquesMethode {
+        final LongAdder appels = new LongAdder();
+        final LongAdder erreurs = new LongAdder();
+        final LongAdder requetesSql = new LongAdder();
+        final HistogrammeLatence latences = new HistogrammeLatence();
+    }
+
+    // Triées pour un export stable d'un scrape à l'autre
+    private final Map<String, MetriquesRoute> routes = new ConcurrentSkipListMap<>();
+    private final Map<String, MetriquesMethode> methodes = new ConcurrentSkipListMap<>();
+
+    public void debutRequete(String methodeHttp, String route) {
+        route(methodeHttp, route).enCours.increment();
+    }
+
+    public void finRequete(String methodeHttp, String route, int statut, long nanos) {
+        MetriquesRoute m = route(methodeHttp, route);
+        m.enCours.decrement();
+        m.latences.enregistrer(nanos);
+        if (statut >= 500) {
+            m.requetes5xx.increment();
+        } else if (statut >= 400) {
+            m.requetes4xx.increment();
+        } else if (statut >= 300) {
+            m.requetes3xx.increment();
+        } else {
+            m.requetes2xx.increment();
+        }
+    }
+
+    public void appelMethode(String methode, long nanos, long requetesSql, boolean erreur) {
+        MetriquesMethode m = methodes.computeIfAbsent(methode, k -> new MetriquesMethode());
+        m.appels.increment();
+        m.requetesSql.add(requetesSql);
+        m.latences.enregistrer(nanos);
+        if (erreur) {
+            m.erreurs.increment();
+        }
+    }
+
+    public String exporterPrometheus() {
+        StringBuilder sortie = new StringBuilder(8192);
+
+        sortie.append("# HELP http_server_requests_total Requêtes HTTP terminées par route et classe de statut.\n")
+              .append("# TYPE http_server_requests_total counter\n");
+        routes.forEach((cle, m) -> {
+            String labels = labelsRoute(cle);
+            ligne(sortie, "http_server_requests_total", labels + ",classe=\"2xx\"", m.requetes2xx.sum());
+            ligne(sortie, "http_server_requests_total", labels + ",classe=\"3xx\"", m.requetes3xx.sum());
+            ligne(sortie, "http_server_requests_total", labels + ",classe=\"4xx\"", m.requetes4xx.sum());
+            ligne(sortie, "http_server_requests_total", labels + ",classe=\"5xx\"", m.requetes5xx.sum());
+        });
+        sortie.append("# HELP http_server_requests_errors_total Requêtes HTTP terminées en erreur (statut >= 400).\n")
+              .append("# TYPE http_server_requests_errors_total counter\n");
+        routes.forEach((cle, m) -> ligne(sortie, "http_server_requests_errors_total", labelsRoute(cle),
+                m.requetes4xx.sum() + m.requetes5xx.sum()));
+        sortie.append("# HELP http_server_requests_in_flight Requêtes HTTP en cours de traitement.\n")
+              .append("# TYPE http_server_requests_in_flight gauge\n");
+        routes.forEach((cle, m) -> ligne(sortie, "http_server_requests_in_flight", labelsRoute(cle), m.enCours.sum()));
+        sortie.append("# HELP http_server_request_duration_seconds Durée des requêtes HTTP (hors écriture du corps en flux).\n")
+              .append("# TYPE http_server_request_duration_seconds histogram\n");
+        routes.forEach((cle, m) -> m.latences.exporter(sortie, "http_server_request_duration_seconds", labelsRoute(cle)));
+
+        sortie.append("# HELP ejb_invocations_total Appels des méthodes de ProjetManager.\n")
+              .append("# TYPE ejb_invocations_total counter\n");
+        methodes.forEach((nom, m) -> ligne(sortie, "ejb_invocations_total", labelMethode(nom), m.appels.sum()));
+        sortie.append("# HELP ejb_invocation_errors_total Appels de ProjetManager terminés par une exception.\n")
+              .append("# TYPE ejb_invocation_errors_total counter\n");
+        methodes.forEach((nom, m) -> ligne(sortie, "ejb_invocation_errors_total", labelMethode(nom), m.erreurs.sum()));
+        sortie.append("# HELP ejb_sql_statements_total Ordres SQL exécutés par les appels de ProjetManager.\n")
+              .append("# TYPE ejb_sql_statements_total counter\n");
+        methodes.forEach((nom, m) -> ligne(sortie, "ejb_sql_statements_total", labelMethode(nom), m.requetesSql.sum()));
+        sortie.append("# HELP ejb_invocation_duration_seconds Durée des appels de ProjetManager.\n")
+              .append("# TYPE ejb_invocation_duration_seconds histogram\n");
+        methodes.forEach((nom, m) -> m.latences.exporter(sortie, "ejb_invocation_duration_seconds", labelMethode(nom)));
+
+        return sortie.toString();
+    }
+
+    private MetriquesRoute route(String methodeHttp, String route) {
+        return routes.computeIfAbsent(methodeHttp + " " + route, k -> new MetriquesRoute());
+    }
+
+    // Clé "GET /projets/{id}" -> methode="GET",route="/projets/{id}"
+    private static String labelsRoute(String cle) {
+        int espace = cle.indexOf(' ');
+        return "methode=\"" + echapper(cle.substring(0, espace)) + "\",route=\"" + echapper(cle.substring(espace + 1)) + "\"";
+    }
+
+    private static String labelMethode(String nom) {
+        return "methode=\"" + echapper(nom) + "\"";
+    }
+
+    private static void ligne(StringBuilder sortie, String nom, String labels, long valeur) {
+        sortie.append(nom).append('{').append(labels).append("} ").append(valeur).append('\n');
+    }
+
+    private static String echapper(String valeur) {
+        return valeur.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,23 @@
+package com.gestionprojets.rest;
+
+import jakarta.ws.rs.NameBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Exige un jeton de session valide (voir FiltreAuthentification).
+ * Si proprietaire est renseigné, le paramètre de chemin (ou à défaut de requête) de ce nom doit valoir
+ * l'id du jeton, sauf pour le rôle admin. Avec publicSansProprietaire, une requête sans ce paramètre
+ * reste anonyme : elle ne porte que sur des données publiques.
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface Authentifie {
+
+    String proprietaire() default "";
+
+    boolean publicSansProprietaire() default false;
+}
@@ -0,0 +1,196 @@
+package com.gestionprojets.rest;
+
+import jakarta.annotation.Priority;
+import jakarta.json.bind.annotation.JsonbTransient;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import metier.dto.Page;
+import metier.dto.ProjetSummary;
+import metier.entities.Projet;
+import metier.entities.Utilisateur;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sélection de champs (?fields=id,titre,utilisateur.nom) sur les projets et utilisateurs renvoyés,
+ * seuls, en liste ou en Page. L'id est toujours conservé ; un champ inconnu est ignoré.
+ * Un nom seul garde la valeur entière, "parent.enfant" ne garde que les champs cités de l'objet imbriqué.
+ * La sélection remplace l'entité avant sérialisation : JSON-B n'écrit que les champs retenus,
+ * sans passer par la représentation complète.
+ */
+@Provider
+@Priority(Priorities.USER)
+public class ChampsSelectionnes implements ContainerResponseFilter {
+
+    // Propriétés sérialisées par JSON-B (getters publics hors @JsonbTransient), par classe
+    private static final ClassValue<Map<String, Method>> PROPRIETES = new ClassValue<>() {
+        @Override
+        protected Map<String, Method> computeValue(Class<?> type) {
+            return proprietes(type);
+        }
+    };
+
+    @Override
+    public void filter(ContainerRequestContext requestContext,
+                       ContainerResponseContext responseContext) throws IOException {
+        List<String> fields = requestContext.getUriInfo().getQueryParameters().get("fields");
+        if (fields == null || fields.isEmpty()
+                || responseContext.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL
+                || !MediaType.APPLICATION_JSON_TYPE.isCompatible(responseContext.getMediaType())) {
+            return;
+        }
+        Object entite = responseContext.getEntity();
+        if (entite instanceof Page<?> page) {
+            if (estEnregistrements(page.getItems())) {
+                Champs selection = Champs.depuis(fields);
+                responseContext.setEntity(new Page<>(selection.filtrer(page.getItems()), page.getNextCursor()));
+            }
+        } else if (estEnregistrement(entite) || estEnregistrements(entite)) {
+            responseContext.setEntity(Champs.depuis(fields).filtrer(entite));
+        }
+    }
+
+    private static boolean estEnregistrement(Object entite) {
+        return entite instanceof Projet || entite instanceof ProjetSummary
+                || entite instanceof Utilisateur || entite instanceof Map;
+    }
+
+    // Une liste vide n'a rien à filtrer
+    private static boolean estEnregistrements(Object entite) {
+        if (!(entite instanceof Collection<?> collection) || collection.isEmpty()) {
+            return false;
+        }
+        return estEnregistrement(collection.iterator().next());
+    }
+
+    // Valeurs que JSON-B écrit comme un scalaire (chaîne, nombre, date...) : rien à y sélectionner
+    private static boolean estScalaire(Object valeur) {
+        return valeur instanceof Enum<?> || valeur.getClass().getName().startsWith("java.");
+    }
+
+    private static Map<String, Method> proprietes(Class<?> type) {
+        Map<String, Method> proprietes = new HashMap<>();
+        try {
+            for (PropertyDescriptor propriete : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+                Method lecture = propriete.getReadMethod();
+                if (lecture != null && !lecture.isAnnotationPresent(JsonbTransient.class)
+                        && !champTransient(type, propriete.getName())) {
+                    proprietes.put(propriete.getName(), lecture);
+                }
+            }
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException("Propriétés illisibles : " + type.getName(), e);
+        }
+        return proprietes;
+    }
+
+    private static boolean champTransient(Class<?> type, String nom) {
+        for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(nom).isAnnotationPresent(JsonbTransient.class);
+            } catch (NoSuchFieldException e) {
+                // Champ déclaré plus haut, ou propriété calculée
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Arbre des champs demandés ; un nœud sans enfant garde la valeur entière.
+     */
+    private static final class Champs {
+
+        private final Map<String, Champs> enfants = new HashMap<>();
+
+        static Champs depuis(List<String> parametres) {
+            Champs racine = new Champs();
+            for (String parametre : parametres) {
+                for (String chemin : parametre.split(",")) {
+                    if (!chemin.isBlank()) {
+                        racine.ajouter(chemin.trim().split("\\."), 0);
+                    }
+                }
+            }
+            return racine;
+        }
+
+        private void ajouter(String[] chemin, int i) {
+            Champs enfant = enfants.computeIfAbsent(chemin[i], nom -> new Champs());
+            if (i + 1 < chemin.length) {
+                enfant.ajouter(chemin, i + 1);
+            }
+        }
+
+        // Listes et maps à la place des objets, qui ne portent que les champs retenus
+        List<Object> filtrer(Collection<?> valeurs) {
+            List<Object> elements = new ArrayList<>(valeurs.size());
+            for (Object element : valeurs) {
+                elements.add(filtrer(element));
+            }
+            return elements;
+        }
+
+        Object filtrer(Object valeur) {
+            if (enfants.isEmpty() || valeur == null) {
+                return valeur;
+            }
+            if (valeur instanceof Collection<?> valeurs) {
+                return filtrer(valeurs);
+            }
+            if (valeur instanceof Map<?, ?> map) {
+                // Ordre des clés de la map d'origine
+                Map<Object, Object> resultat = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> champ : map.entrySet()) {
+                    Champs selection = enfants.get(String.valueOf(champ.getKey()));
+                    if (selection != null) {
+                        resultat.put(champ.getKey(), selection.filtrer(champ.getValue()));
+                    } else if ("id".equals(champ.getKey())) {
+                        resultat.put("id", champ.getValue());
+                    }
+                }
+                return resultat;
+            }
+            if (estScalaire(valeur)) {
+                return valeur;
+            }
+            // Ordre lexicographique, celui de JSON-B pour la représentation complète ;
+            // les propriétés nulles sont omises, comme JSON-B le fait par défaut
+            Map<String, Object> resultat = new TreeMap<>();
+            for (Map.Entry<String, Method> propriete : PROPRIETES.get(valeur.getClass()).entrySet()) {
+                String nom = propriete.getKey();
+                Champs selection = enfants.get(nom);
+                if (selection == null && !nom.equals("id")) {
+                    continue;
+                }
+                Object champ = lire(propriete.getValue(), valeur);
+                if (champ != null) {
+                    resultat.put(nom, selection != null ? selection.filtrer(champ) : champ);
+                }
+            }
+            return resultat;
+        }
+
+        private static Object lire(Method lecture, Object cible) {
+            try {
+                return lecture.invoke(cible);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Lecture impossible : " + lecture, e);
+            }
+        }
+    }
+}
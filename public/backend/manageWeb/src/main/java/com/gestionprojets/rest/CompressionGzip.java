@@ -0,0 +1,212 @@
+package com.gestionprojets.rest;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression gzip des réponses quand le client l'accepte (Accept-Encoding).
+ * Les premiers octets sont retenus : une réponse qui reste sous le seuil part telle quelle,
+ * la compression n'y gagnerait presque rien.
+ * La variante compressée porte l'ETag fort de la réponse suffixé de "-gzip" : les deux variantes
+ * ne sont pas identiques octet pour octet. Le suffixe est retiré des If-None-Match / If-Match reçus,
+ * les ressources ne comparent que l'ETag de la représentation.
+ */
+@Provider
+// Intercepteur le plus externe : compresse ce qu'écrivent les autres
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionGzip implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final String ACTIVEE = "compression.gzip";
+    private static final String VARIANTE_DEMANDEE = "compression.gzip.etag";
+
+    static final String SUFFIXE_ETAG = "-gzip";
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        if (retirerSuffixe(requestContext, HttpHeaders.IF_NONE_MATCH)) {
+            // Un 304 doit renvoyer l'ETag de la variante détenue par le client
+            requestContext.setProperty(VARIANTE_DEMANDEE, Boolean.TRUE);
+        }
+        retirerSuffixe(requestContext, HttpHeaders.IF_MATCH);
+    }
+
+    private static boolean retirerSuffixe(ContainerRequestContext requestContext, String entete) {
+        List<String> valeurs = requestContext.getHeaders().get(entete);
+        if (valeurs == null) {
+            return false;
+        }
+        boolean retire = false;
+        for (int i = 0; i < valeurs.size(); i++) {
+            String valeur = valeurs.get(i);
+            String sansSuffixe = valeur.replace(SUFFIXE_ETAG + "\"", "\"");
+            if (!sansSuffixe.equals(valeur)) {
+                valeurs.set(i, sansSuffixe);
+                retire = true;
+            }
+        }
+        return retire;
+    }
+
+    // ETag fort de la variante compressée ; un ETag faible couvre déjà les deux variantes
+    private static void suffixerEtag(MultivaluedMap<String, Object> entetes) {
+        Object etag = entetes.getFirst(HttpHeaders.ETAG);
+        if (etag == null) {
+            return;
+        }
+        EntityTag tag = etag instanceof EntityTag e ? e : EntityTag.valueOf(etag.toString());
+        if (!tag.isWeak() && !tag.getValue().endsWith(SUFFIXE_ETAG)) {
+            entetes.putSingle(HttpHeaders.ETAG, new EntityTag(tag.getValue() + SUFFIXE_ETAG));
+        }
+    }
+
+    // En octets ; en dessous, l'en-tête gzip et le temps CPU coûtent plus qu'ils ne rapportent
+    private static final int SEUIL = Integer.getInteger("gestionprojets.compression.seuil", 1024);
+
+    @Override
+    public void filter(ContainerRequestContext requestContext,
+                       ContainerResponseContext responseContext) throws IOException {
+        // Les caches intermédiaires doivent distinguer les variantes, 304 compris
+        if (responseContext.hasEntity() || responseContext.getStatus() == 304) {
+            responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (responseContext.getStatus() == 304 && Boolean.TRUE.equals(requestContext.getProperty(VARIANTE_DEMANDEE))
+                && accepteGzip(requestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING))) {
+            suffixerEtag(responseContext.getHeaders());
+        }
+        if (responseContext.hasEntity()
+                && !responseContext.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+                && !MediaType.SERVER_SENT_EVENTS_TYPE.isCompatible(responseContext.getMediaType())
+                && accepteGzip(requestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING))) {
+            requestContext.setProperty(ACTIVEE, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        if (!Boolean.TRUE.equals(context.getProperty(ACTIVEE))) {
+            context.proceed();
+            return;
+        }
+        SortieGzipDifferee sortie = new SortieGzipDifferee(context.getOutputStream(), context.getHeaders());
+        context.setOutputStream(sortie);
+        context.proceed();
+        sortie.terminer();
+    }
+
+    // "gzip", "gzip;q=0.8", "*"... ; q=0 refuse explicitement, et gzip cité l'emporte sur "*"
+    private static boolean accepteGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean etoile = null;
+        for (String codage : acceptEncoding.split(",")) {
+            String[] parties = codage.split(";");
+            String nom = parties[0].trim();
+            if (nom.equalsIgnoreCase("gzip")) {
+                return qualite(parties) > 0;
+            }
+            if (nom.equals("*")) {
+                etoile = qualite(parties) > 0;
+            }
+        }
+        return Boolean.TRUE.equals(etoile);
+    }
+
+    private static double qualite(String[] parties) {
+        for (int i = 1; i < parties.length; i++) {
+            String parametre = parties[i].trim();
+            if (parametre.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parametre.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Retient jusqu'à SEUIL octets avant de choisir : les en-têtes ne partent qu'avec le premier
+     * octet écrit sur la sortie du conteneur, Content-Encoding peut donc encore être posé.
+     */
+    private static final class SortieGzipDifferee extends OutputStream {
+
+        private final OutputStream sortie;
+        private final MultivaluedMap<String, Object> entetes;
+        private final byte[] retenu = new byte[SEUIL];
+        private int taille;
+        private GZIPOutputStream gzip;
+        private boolean termine;
+
+        SortieGzipDifferee(OutputStream sortie, MultivaluedMap<String, Object> entetes) {
+            this.sortie = sortie;
+            this.entetes = entetes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (gzip == null && taille + len <= retenu.length) {
+                System.arraycopy(b, off, retenu, taille, len);
+                taille += len;
+                return;
+            }
+            if (gzip == null) {
+                entetes.putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+                entetes.remove(HttpHeaders.CONTENT_LENGTH);
+                suffixerEtag(entetes);
+                // syncFlush : les flush de l'export en flux atteignent bien le client
+                gzip = new GZIPOutputStream(sortie, 8192, true);
+                gzip.write(retenu, 0, taille);
+            }
+            gzip.write(b, off, len);
+        }
+
+        // Sous le seuil, rien n'est encore décidé : le flush attend la suite
+        @Override
+        public void flush() throws IOException {
+            if (gzip != null) {
+                gzip.flush();
+            }
+        }
+
+        // JsonGenerator.close() ferme la sortie : on termine d'abord le flux gzip
+        @Override
+        public void close() throws IOException {
+            terminer();
+            sortie.close();
+        }
+
+        void terminer() throws IOException {
+            if (termine) {
+                return;
+            }
+            termine = true;
+            if (gzip == null) {
+                sortie.write(retenu, 0, taille);
+            } else {
+                gzip.finish();
+            }
+        }
+    }
+}
@@ -21,9 +21,11 @@ public class CorsFilter implements ContainerResponseFilter {
         // Si tu veux permettre les cookies / autorisation
         responseContext.getHeaders().add("Access-Control-Allow-Credentials", "true");
         // Méthodes autorisées
-        responseContext.getHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+        responseContext.getHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, PATCH, DELETE, OPTIONS");
         // En-têtes que le client peut envoyer
-        responseContext.getHeaders().add("Access-Control-Allow-Headers", "Origin, Content-Type, Accept, Authorization");
+        responseContext.getHeaders().add("Access-Control-Allow-Headers", "Origin, Content-Type, Accept, Authorization, If-Match, If-None-Match, If-Modified-Since");
+        // En-têtes de réponse lisibles par le client (GET conditionnels)
+        responseContext.getHeaders().add("Access-Control-Expose-Headers", "ETag, Last-Modified");
         // Facultatif : durée de mise en cache du preflight (en secondes)
         responseContext.getHeaders().add("Access-Control-Max-Age", "3600");
     }
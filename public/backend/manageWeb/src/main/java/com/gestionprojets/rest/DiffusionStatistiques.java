@@ -0,0 +1,97 @@
+package com.gestionprojets.rest;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Singleton;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
+import metier.ProjetManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flux SSE des statistiques (GET /projets/stat/stream) : un seul diffuseur pour tous les abonnés.
+ * Les compteurs sont relus au plus une fois par intervalle, et seulement si leur révision a changé,
+ * quel que soit le nombre d'onglets ouverts.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class DiffusionStatistiques {
+
+    private static final long INTERVALLE_MS = Long.getLong("gestionprojets.stat.flux.intervalle.ms", 1000);
+
+    @EJB
+    private ProjetManager projetSBean;
+
+    @Resource
+    private ManagedScheduledExecutorService planificateur;
+
+    // Créés au premier abonnement : Sse n'est fourni qu'aux ressources JAX-RS
+    private Sse sse;
+    private SseBroadcaster diffuseur;
+    private ScheduledFuture<?> tache;
+
+    // Lue et écrite par la seule tâche périodique
+    private long derniereRevision = -1;
+
+    public void abonner(SseEventSink sink, Sse sseRequete) {
+        SseBroadcaster courant = demarrer(sseRequete);
+        courant.register(sink);
+        // Valeur actuelle tout de suite, sans attendre le prochain changement
+        sink.send(evenement(projetSBean.revisionStatistiques()));
+    }
+
+    private synchronized SseBroadcaster demarrer(Sse sseRequete) {
+        if (diffuseur == null) {
+            sse = sseRequete;
+            diffuseur = sse.newBroadcaster();
+            tache = planificateur.scheduleWithFixedDelay(this::diffuser, INTERVALLE_MS, INTERVALLE_MS,
+                    TimeUnit.MILLISECONDS);
+        }
+        return diffuseur;
+    }
+
+    private void diffuser() {
+        try {
+            long revision = projetSBean.revisionStatistiques();
+            if (revision != derniereRevision) {
+                derniereRevision = revision;
+                diffuseur.broadcast(evenement(revision));
+            }
+        } catch (RuntimeException e) {
+            // Une exception arrêterait la tâche périodique : le prochain passage réessaie
+        }
+    }
+
+    // Lue avant les compteurs : une modification concurrente sera au pire rediffusée au passage suivant
+    private OutboundSseEvent evenement(long revision) {
+        Map<String, Object> statistiques = new LinkedHashMap<>();
+        statistiques.put("technologie", projetSBean.stat());
+        statistiques.put("statut", projetSBean.statParStatut());
+        return sse.newEventBuilder()
+                .id(String.valueOf(revision))
+                .name("stat")
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(Map.class, statistiques)
+                .build();
+    }
+
+    @PreDestroy
+    public synchronized void arreter() {
+        if (tache != null) {
+            tache.cancel(false);
+        }
+        if (diffuseur != null) {
+            diffuseur.close();
+        }
+    }
+}
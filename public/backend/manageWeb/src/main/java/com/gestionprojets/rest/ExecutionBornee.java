@@ -0,0 +1,65 @@
+package com.gestionprojets.rest;
+
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Exécution d'un traitement lent (lecture JDBC, export) hors du thread de requête, sur l'exécuteur
+ * géré du conteneur, avec un nombre borné de traitements simultanés par point d'accès et un délai
+ * de réponse. Au-delà de la borne ou du délai : 503 avec Retry-After, sans bloquer de thread.
+ * Bornes et délais réglables par propriétés système gestionprojets.async.&lt;nom&gt;.max et
+ * gestionprojets.async.&lt;nom&gt;.delai.s.
+ */
+final class ExecutionBornee {
+
+    private static final int RETRY_AFTER_SECONDES = 2;
+
+    private final String nom;
+    private final Semaphore places;
+    private final long delaiSecondes;
+
+    ExecutionBornee(String nom, int maxParDefaut, long delaiParDefautSecondes) {
+        this.nom = nom;
+        this.places = new Semaphore(Integer.getInteger("gestionprojets.async." + nom + ".max", maxParDefaut));
+        this.delaiSecondes = Long.getLong("gestionprojets.async." + nom + ".delai.s", delaiParDefautSecondes);
+    }
+
+    void executer(ManagedExecutorService executeur, AsyncResponse reponse, Supplier<Response> traitement) {
+        if (!places.tryAcquire()) {
+            reponse.resume(indisponible("Trop de requêtes " + nom + " en cours, réessayez plus tard"));
+            return;
+        }
+        // Délai dépassé : le client reçoit 503 ; le traitement, lui, va à son terme et libère sa place
+        reponse.setTimeoutHandler(r -> r.resume(indisponible("Délai de traitement dépassé")));
+        reponse.setTimeout(delaiSecondes, TimeUnit.SECONDS);
+        try {
+            executeur.execute(() -> {
+                try {
+                    // resume écrit la réponse sur ce thread : un export en flux garde sa place jusqu'au bout
+                    reponse.resume(traitement.get());
+                } catch (RuntimeException | Error e) {
+                    reponse.resume(e);
+                } finally {
+                    places.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            places.release();
+            reponse.resume(indisponible("Serveur saturé, réessayez plus tard"));
+        }
+    }
+
+    private static Response indisponible(String message) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", RETRY_AFTER_SECONDES)
+                .type(MediaType.APPLICATION_JSON)
+                .entity("{\"status\":\"error\",\"message\":\"" + message + "\"}")
+                .build();
+    }
+}
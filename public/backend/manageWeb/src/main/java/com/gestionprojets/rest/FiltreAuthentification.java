@@ -0,0 +1,101 @@
+package com.gestionprojets.rest;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.security.Principal;
+
+/**
+ * Authentifie les méthodes annotées @Authentifie à partir de l'en-tête "Authorization: Bearer <jeton>".
+ * Vérification purement en mémoire (signature HMAC et expiration), sans requête.
+ * Le principal exposé par le SecurityContext a pour nom l'id de l'utilisateur.
+ */
+@Provider
+@Authentifie
+@Priority(Priorities.AUTHENTICATION)
+public class FiltreAuthentification implements ContainerRequestFilter {
+
+    public static final String ROLE_ADMIN = "admin";
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        Authentifie regle = resourceInfo.getResourceMethod().getAnnotation(Authentifie.class);
+        String proprietaire = regle != null && !regle.proprietaire().isEmpty()
+                ? parametre(requestContext, regle.proprietaire())
+                : null;
+        if (regle != null && regle.publicSansProprietaire() && proprietaire == null) {
+            return;
+        }
+
+        JetonSession.Contenu jeton = JetonSession.depuisEntete(requestContext.getHeaderString(HttpHeaders.AUTHORIZATION));
+        if (jeton == null) {
+            requestContext.abortWith(erreur(Response.Status.UNAUTHORIZED, "Jeton de session absent, invalide ou expiré"));
+            return;
+        }
+
+        if (regle != null && !regle.proprietaire().isEmpty() && !ROLE_ADMIN.equals(jeton.role())) {
+            if (proprietaire == null || !proprietaire.equals(String.valueOf(jeton.id()))) {
+                requestContext.abortWith(erreur(Response.Status.FORBIDDEN, "Accès réservé au propriétaire"));
+                return;
+            }
+        }
+
+        requestContext.setSecurityContext(new ContexteJeton(jeton, requestContext.getSecurityContext().isSecure()));
+    }
+
+    // Paramètre de chemin, sinon de requête
+    private static String parametre(ContainerRequestContext requestContext, String nom) {
+        String valeur = requestContext.getUriInfo().getPathParameters().getFirst(nom);
+        return valeur != null ? valeur : requestContext.getUriInfo().getQueryParameters().getFirst(nom);
+    }
+
+    private static Response erreur(Response.Status statut, String message) {
+        return Response.status(statut)
+                .type(MediaType.APPLICATION_JSON)
+                .entity("{\"error\":\"" + message + "\"}")
+                .build();
+    }
+
+    private static final class ContexteJeton implements SecurityContext {
+
+        private final JetonSession.Contenu jeton;
+        private final boolean securise;
+
+        ContexteJeton(JetonSession.Contenu jeton, boolean securise) {
+            this.jeton = jeton;
+            this.securise = securise;
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return () -> String.valueOf(jeton.id());
+        }
+
+        @Override
+        public boolean isUserInRole(String role) {
+            return role != null && role.equals(jeton.role());
+        }
+
+        @Override
+        public boolean isSecure() {
+            return securise;
+        }
+
+        @Override
+        public String getAuthenticationScheme() {
+            return "Bearer";
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.gestionprojets.rest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Jeton de session compact signé par HMAC-SHA256 : base64url("id.expiration.role") + "." + base64url(signature).
+ * Vérifié sans aucun accès à la base.
+ * La clé vient de la propriété système gestionprojets.jeton.cle (base64, 32 octets ou plus) ;
+ * à défaut une clé aléatoire est tirée au démarrage et les jetons ne survivent pas à un redémarrage.
+ * Durée de validité : gestionprojets.jeton.duree.s (8 heures par défaut).
+ */
+public final class JetonSession {
+
+    public record Contenu(Long id, String role, long expiration) {
+    }
+
+    private static final String ALGORITHME = "HmacSHA256";
+    private static final String PREFIXE = "Bearer ";
+    private static final long DUREE_SECONDES = Long.getLong("gestionprojets.jeton.duree.s", 8 * 3600L);
+    private static final SecretKeySpec CLE = new SecretKeySpec(cle(), ALGORITHME);
+
+    private static final Base64.Encoder ENCODEUR = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODEUR = Base64.getUrlDecoder();
+
+    private JetonSession() {
+    }
+
+    public static String emettre(Long id, String role) {
+        long expiration = System.currentTimeMillis() / 1000 + DUREE_SECONDES;
+        String contenu = id + "." + expiration + "." + (role == null ? "" : role);
+        byte[] octets = contenu.getBytes(StandardCharsets.UTF_8);
+        return ENCODEUR.encodeToString(octets) + "." + ENCODEUR.encodeToString(signer(octets));
+    }
+
+    // Valeur de l'en-tête "Authorization: Bearer <jeton>" ; null si l'en-tête est absent ou le jeton invalide
+    public static Contenu depuisEntete(String entete) {
+        return entete != null && entete.startsWith(PREFIXE) ? verifier(entete.substring(PREFIXE.length()).trim()) : null;
+    }
+
+    // Null si le jeton est mal formé, falsifié ou expiré
+    public static Contenu verifier(String jeton) {
+        if (jeton == null) {
+            return null;
+        }
+        int point = jeton.indexOf('.');
+        if (point <= 0 || point != jeton.lastIndexOf('.')) {
+            return null;
+        }
+        try {
+            byte[] octets = DECODEUR.decode(jeton.substring(0, point));
+            byte[] signature = DECODEUR.decode(jeton.substring(point + 1));
+            if (!MessageDigest.isEqual(signer(octets), signature)) {
+                return null;
+            }
+            String[] parties = new String(octets, StandardCharsets.UTF_8).split("\\.", 3);
+            if (parties.length != 3) {
+                return null;
+            }
+            long expiration = Long.parseLong(parties[1]);
+            if (expiration < System.currentTimeMillis() / 1000) {
+                return null;
+            }
+            return new Contenu(Long.valueOf(parties[0]), parties[2].isEmpty() ? null : parties[2], expiration);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] signer(byte[] octets) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHME);
+            mac.init(CLE);
+            return mac.doFinal(octets);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponible", e);
+        }
+    }
+
+    private static byte[] cle() {
+        String configuree = System.getProperty("gestionprojets.jeton.cle");
+        if (configuree != null && !configuree.isBlank()) {
+            byte[] cle = Base64.getDecoder().decode(configuree.trim());
+            if (cle.length < 32) {
+                throw new IllegalStateException("gestionprojets.jeton.cle doit faire au moins 32 octets");
+            }
+            return cle;
+        }
+        byte[] cle = new byte[32];
+        new SecureRandom().nextBytes(cle);
+        return cle;
+    }
+}
@@ -0,0 +1,80 @@
+package com.gestionprojets.rest;
+
+import jakarta.annotation.Priority;
+import jakarta.ejb.EJB;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import metier.metriques.RegistreMetriques;
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+/**
+ * Mesure chaque requête par gabarit de route ("/projets/{id}" et non "/projets/42"),
+ * pour garder un nombre de séries borné.
+ */
+@Provider
+// Avant l'authentification, pour compter aussi les requêtes refusées (401, 403)
+@Priority(Priorities.AUTHENTICATION - 100)
+public class MetriquesFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String DEBUT = "metriques.debut";
+    private static final String ROUTE = "metriques.route";
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @EJB
+    private RegistreMetriques registre;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        String route = route();
+        requestContext.setProperty(ROUTE, route);
+        requestContext.setProperty(DEBUT, System.nanoTime());
+        registre.debutRequete(requestContext.getMethod(), route);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext,
+                       ContainerResponseContext responseContext) throws IOException {
+        Object debut = requestContext.getProperty(DEBUT);
+        // Pas de filtre de requête (404 avant résolution de la ressource, preflight...) : rien à mesurer
+        if (!(debut instanceof Long)) {
+            return;
+        }
+        registre.finRequete(requestContext.getMethod(), (String) requestContext.getProperty(ROUTE),
+                responseContext.getStatus(), System.nanoTime() - (Long) debut);
+    }
+
+    private String route() {
+        Class<?> ressource = resourceInfo.getResourceClass();
+        Method methode = resourceInfo.getResourceMethod();
+        if (ressource == null || methode == null) {
+            return "inconnue";
+        }
+        String chemin = concatener(chemin(ressource.getAnnotation(Path.class)), chemin(methode.getAnnotation(Path.class)));
+        return chemin.isEmpty() ? "/" : chemin;
+    }
+
+    private static String chemin(Path path) {
+        if (path == null) {
+            return "";
+        }
+        String valeur = path.value();
+        return valeur.endsWith("/") ? valeur.substring(0, valeur.length() - 1) : valeur;
+    }
+
+    private static String concatener(String base, String suite) {
+        if (suite.isEmpty()) {
+            return base;
+        }
+        return suite.startsWith("/") ? base + suite : base + "/" + suite;
+    }
+}
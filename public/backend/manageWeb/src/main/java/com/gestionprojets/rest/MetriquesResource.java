@@ -0,0 +1,23 @@
+package com.gestionprojets.rest;
+
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import metier.metriques.RegistreMetriques;
+
+@Stateless
+@Path("/metrics")
+public class MetriquesResource {
+
+    @EJB
+    private RegistreMetriques registre;
+
+    // Format d'exposition texte lu par Prometheus
+    @GET
+    @Produces("text/plain; version=0.0.4; charset=utf-8")
+    public String exporter() {
+        return registre.exporterPrometheus();
+    }
+}
@@ -1,28 +1,254 @@
 package com.gestionprojets.rest;
 
+import jakarta.annotation.Resource;
 import jakarta.ejb.EJB;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
 import jakarta.ejb.Stateless;
+import jakarta.json.Json;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 import metier.ProjetManager;
+import metier.dto.ChangementStatut;
+import metier.dto.Estampille;
+import metier.dto.ModificationProjet;
+import metier.dto.Page;
+import metier.dto.ProjetFilter;
+import metier.dto.ProjetSummary;
+import metier.dto.ResultatImport;
+import metier.dto.TableauDeBord;
+import metier.entities.Changement;
 import metier.entities.Projet;
+import metier.entities.StatutProjet;
+import metier.entities.Utilisateur;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Stateless
 @Path("/")
 public class ProjetResource {
 
+    // Taille de page utilisée quand seul ?after= est fourni
+    private static final int TAILLE_PAGE_DEFAUT = 50;
+
+    // Nombre de lignes lues entre deux vidages du contexte de persistance pendant l'export
+    private static final int TAILLE_LOT_EXPORT = 500;
+
+    // Format "JSON délimité par lignes" accepté par l'import en masse
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final Jsonb JSONB = JsonbBuilder.create();
+
+    // Lectures lourdes exécutées hors du thread de requête, bornées par point d'accès
+    private static final ExecutionBornee LISTES = new ExecutionBornee("listes", 16, 30);
+    private static final ExecutionBornee PROJETS_UTILISATEUR = new ExecutionBornee("utilisateur", 32, 15);
+    private static final ExecutionBornee EXPORTS = new ExecutionBornee("export", 2, 60);
+
+    // Attente maximale d'un long-poll sur /projets/changes, et intervalle des commentaires SSE
+    private static final int ATTENTE_CHANGEMENTS_MAX_S = 30;
+
     @EJB
     private ProjetManager projetSBean;
+
+    @EJB
+    private DiffusionStatistiques diffusion;
+
+    @Context
+    private Request requete;
+
+    // Exécuteur géré par défaut du conteneur (pas de threads virtuels en Java 17)
+    @Resource
+    private ManagedExecutorService executeur;
     
     @GET
     @Path("/projets")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getAllProjets() {
-        List<Projet> projets = projetSBean.listerTousLesProjets();
-        return Response.ok(projets).build();
+    public void getAllProjets(
+            @QueryParam("after") Long after,
+            @QueryParam("limit") Integer limit,
+            @Suspended AsyncResponse async) {
+        siProjetsModifiesEnArrierePlan(LISTES, async, () -> {
+            if (estPagine(after, limit)) {
+                return pageOuErreur(() -> projetSBean.listerTousLesProjets(after, taillePage(limit)));
+            }
+            List<ProjetSummary> projets = projetSBean.listerTousLesProjets();
+            return Response.ok(projets).build();
+        });
+    }
+
+    @GET
+    @Path("/projets/technologie/{technologie}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getProjetsParTechnologie(
+            @PathParam("technologie") String technologie,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") Integer limit) {
+        return siProjetsModifies(() -> {
+            if (estPagine(after, limit)) {
+                return pageOuErreur(() -> projetSBean.listerProjetsParTechnologie(technologie, after, taillePage(limit)));
+            }
+            List<ProjetSummary> projets = projetSBean.listerProjetsParTechnologie(technologie);
+            return Response.ok(projets).build();
+        });
+    }
+
+    @GET
+    @Path("/projets/search")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response rechercherProjets(
+            @QueryParam("q") String q,
+            @QueryParam("offset") @DefaultValue("0") int offset,
+            @QueryParam("limit") Integer limit) {
+        return siProjetsModifies(() -> {
+            try {
+                return Response.ok(projetSBean.rechercherProjets(q, offset, taillePage(limit))).build();
+            } catch (Exception e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                       .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                       .build();
+            }
+        });
+    }
+
+    // Critères combinables : /projets/query?userId=3&statut=en_cours&statut=en_attente&technologie=Java
+    //     &creeApres=2024-01-01&creeAvant=2024-12-31&termineApres=...&termineAvant=...&tri=-dateCreation
+    // statut et technologie acceptent plusieurs valeurs (paramètre répété ou séparé par des virgules)
+    // Avec userId, réservé à cet utilisateur (jeton) ; sans, public comme la liste /projets
+    @GET
+    @Path("/projets/query")
+    @Authentifie(proprietaire = "userId", publicSansProprietaire = true)
+    @Produces(MediaType.APPLICATION_JSON)
+    public void rechercherParCriteres(
+            @QueryParam("userId") Long userId,
+            @QueryParam("statut") List<String> statuts,
+            @QueryParam("technologie") List<String> technologies,
+            @QueryParam("creeApres") String creeApres,
+            @QueryParam("creeAvant") String creeAvant,
+            @QueryParam("termineApres") String termineApres,
+            @QueryParam("termineAvant") String termineAvant,
+            @QueryParam("tri") String tri,
+            @QueryParam("offset") @DefaultValue("0") int offset,
+            @QueryParam("limit") Integer limit,
+            @Suspended AsyncResponse async) {
+        ProjetFilter filtre = new ProjetFilter();
+        try {
+            filtre.setUserId(userId);
+            for (String libelle : valeursMultiples(statuts)) {
+                filtre.getStatuts().add(StatutProjet.depuisLibelle(libelle));
+            }
+            filtre.getTechnologies().addAll(valeursMultiples(technologies));
+            filtre.setCreeApres(date(creeApres));
+            filtre.setCreeAvant(date(creeAvant));
+            filtre.setTermineApres(date(termineApres));
+            filtre.setTermineAvant(date(termineAvant));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            async.resume(Response.status(Response.Status.BAD_REQUEST)
+                   .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                   .build());
+            return;
+        }
+        filtre.setTri(tri);
+        filtre.setOffset(offset);
+        filtre.setLimit(taillePage(limit));
+        siProjetsModifiesEnArrierePlan(LISTES, async, () -> pageOuErreur(() -> projetSBean.rechercher(filtre)));
+    }
+
+    @GET
+    @Path("/projets/export")
+    @Produces(MediaType.APPLICATION_JSON)
+    public void exporterProjets(@Suspended AsyncResponse async) {
+        // Le tableau JSON est écrit élément par élément pendant la lecture du curseur
+        StreamingOutput flux = sortie -> {
+            try (JsonGenerator json = Json.createGenerator(sortie)) {
+                json.writeStartArray();
+                int[] ecrits = {0};
+                projetSBean.exporterProjets(TAILLE_LOT_EXPORT, projet -> {
+                    ecrireProjet(json, projet);
+                    if (++ecrits[0] % TAILLE_LOT_EXPORT == 0) {
+                        json.flush();
+                    }
+                });
+                json.writeEnd();
+            }
+        };
+        EXPORTS.executer(executeur, async, () -> Response.ok(flux).build());
+    }
+
+    // Journal des changements : ?since=<seq> (0 au premier appel), puis le seq du dernier événement reçu.
+    // ?wait=<s> : long-poll, sans événement la réponse attend jusqu'à wait secondes le suivant.
+    // 410 si des événements postérieurs à since ont déjà été purgés : repartir d'un GET /projets complet
+    @GET
+    @Path("/projets/changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    public void getChangements(
+            @QueryParam("since") @DefaultValue("0") long since,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("wait") @DefaultValue("0") int attente,
+            @Suspended AsyncResponse async) {
+        int taille = taillePage(limit);
+        Response reponse = changementsOuErreur(since, taille);
+        int secondes = Math.min(Math.max(attente, 0), ATTENTE_CHANGEMENTS_MAX_S);
+        if (secondes == 0 || !estVide(reponse)) {
+            async.resume(reponse);
+            return;
+        }
+        // Inscription seulement s'il faut attendre, puis relecture : un commit survenu entre
+        // la première lecture et l'inscription n'est pas manqué
+        CompletableFuture<Void> signal = projetSBean.attendreChangement(since);
+        reponse = changementsOuErreur(since, taille);
+        if (!estVide(reponse)) {
+            signal.cancel(false);
+            async.resume(reponse);
+            return;
+        }
+        // Aucun thread n'est retenu pendant l'attente
+        signal.orTimeout(secondes, TimeUnit.SECONDS)
+              .whenCompleteAsync((fin, expiree) -> async.resume(changementsOuErreur(since, taille)), executeur);
+    }
+
+    // Même journal en Server-Sent Events : id = seq (reprise par Last-Event-ID), nom = type d'événement
+    @GET
+    @Path("/projets/changes")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void fluxChangements(
+            @QueryParam("since") @DefaultValue("0") long since,
+            @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String dernierId,
+            @Context SseEventSink sink,
+            @Context Sse sse) {
+        long depuis = since;
+        if (dernierId != null) {
+            try {
+                depuis = Long.parseLong(dernierId.trim());
+            } catch (NumberFormatException e) {
+                // Identifiant illisible : on s'en tient à since
+            }
+        }
+        long debut = depuis;
+        executeur.execute(() -> pousserChangements(sink, sse, debut));
     }
 
     @GET
@@ -35,14 +261,18 @@ public class ProjetResource {
                    .entity("{\"message\":\"Projet non trouvé\"}")
                    .build();
         }
-        return Response.ok(projet).build();
+        return ReponsesConditionnelles.evaluer(requete, etag(projet), null, () -> Response.ok(projet).build());
     }
 
     @POST
     @Path("/projets")
+    @Authentifie
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response creerProjet(Projet projet) {
+    public Response creerProjet(Projet projet, @Context SecurityContext securite) {
+        if (projet != null && !proprietaireAutorise(projet, securite)) {
+            return accesReserveAuProprietaire();
+        }
         try {
             projetSBean.creerProjet(projet);
             return Response.status(Response.Status.CREATED)
@@ -55,11 +285,61 @@ public class ProjetResource {
         }
     }
 
+    @POST
+    @Path("/projets/batch")
+    @Authentifie
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response creerProjets(List<Projet> projets, @Context SecurityContext securite) {
+        if (projets != null) {
+            for (Projet projet : projets) {
+                if (projet != null && !proprietaireAutorise(projet, securite)) {
+                    return accesReserveAuProprietaire();
+                }
+            }
+        }
+        try {
+            List<ResultatImport> resultats = projetSBean.creerProjets(projets);
+            return Response.ok(resultats).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                   .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                   .build();
+        }
+    }
+
+    @POST
+    @Path("/projets/batch")
+    @Authentifie
+    @Consumes(APPLICATION_NDJSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response creerProjetsNdjson(InputStream corps, @Context SecurityContext securite) {
+        List<Projet> projets = new ArrayList<>();
+        try (BufferedReader lecteur = new BufferedReader(new InputStreamReader(corps, StandardCharsets.UTF_8))) {
+            String ligne;
+            while ((ligne = lecteur.readLine()) != null) {
+                if (!ligne.isBlank()) {
+                    projets.add(JSONB.fromJson(ligne, Projet.class));
+                }
+            }
+        } catch (Exception e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                   .entity("{\"status\":\"error\",\"message\":\"NDJSON invalide à l'élément n°" + (projets.size() + 1) + "\"}")
+                   .build();
+        }
+        return creerProjets(projets, securite);
+    }
+
     @PUT
     @Path("/projets/{id}")
+    @Authentifie
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response mettreAJourProjet(@PathParam("id") Long id, Projet projet) {
+    public Response mettreAJourProjet(@PathParam("id") Long id, Projet projet, @Context SecurityContext securite) {
+        // Le projet doit rester à son propriétaire : pas de cession hors admin
+        if (!projetAutorise(id, securite) || (projet != null && !proprietaireAutorise(projet, securite))) {
+            return accesReserveAuProprietaire();
+        }
         try {
             projet.setId(id);
             projetSBean.mettreAJourProjet(projet);
@@ -67,6 +347,62 @@ public class ProjetResource {
                    .entity("{\"status\":\"success\",\"message\":\"Projet mis à jour avec succès\"}")
                    .build();
         } catch (Exception e) {
+            if (estConflitDeVersion(e)) {
+                return conflit();
+            }
+            return Response.status(Response.Status.BAD_REQUEST)
+                   .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                   .build();
+        }
+    }
+
+    @PATCH
+    @Path("/projets/{id}")
+    @Authentifie
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response modifierProjet(
+            @PathParam("id") Long id,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+            ModificationProjet modification,
+            @Context SecurityContext securite) {
+        if (!projetAutorise(id, securite)) {
+            return accesReserveAuProprietaire();
+        }
+        if (modification == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                   .entity("{\"status\":\"error\",\"message\":\"Corps de requête vide\"}")
+                   .build();
+        }
+        // Version attendue : celle du corps, sinon celle de l'ETag envoyé en If-Match. Sans l'une ni
+        // l'autre, la modification pourrait écraser celle d'un autre client : 428
+        if (modification.getVersion() == null && ifMatch == null) {
+            return Response.status(Response.Status.PRECONDITION_REQUIRED)
+                   .entity("{\"status\":\"error\",\"message\":\"En-tête If-Match ou champ version obligatoire\"}")
+                   .build();
+        }
+        if (modification.getVersion() == null) {
+            Long version = versionDepuisEtag(ifMatch);
+            if (version == null) {
+                // ETag faible ou étranger : la comparaison forte exigée par If-Match échoue
+                return Response.status(Response.Status.PRECONDITION_FAILED)
+                       .entity("{\"status\":\"error\",\"message\":\"If-Match ne désigne pas une version de ce projet\"}")
+                       .build();
+            }
+            modification.setVersion(version);
+        }
+        try {
+            Projet projet = projetSBean.modifierProjet(id, modification);
+            if (projet == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                       .entity("{\"message\":\"Projet non trouvé\"}")
+                       .build();
+            }
+            return Response.ok(projet).tag(etag(projet)).build();
+        } catch (Exception e) {
+            if (estConflitDeVersion(e)) {
+                return conflit();
+            }
             return Response.status(Response.Status.BAD_REQUEST)
                    .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
                    .build();
@@ -75,8 +411,12 @@ public class ProjetResource {
 
     @DELETE
     @Path("/projets/{id}")
+    @Authentifie
     @Produces(MediaType.APPLICATION_JSON)
-    public Response supprimerProjet(@PathParam("id") Long id) {
+    public Response supprimerProjet(@PathParam("id") Long id, @Context SecurityContext securite) {
+        if (!projetAutorise(id, securite)) {
+            return accesReserveAuProprietaire();
+        }
         try {
             projetSBean.supprimerProjet(id);
             return Response.ok()
@@ -89,114 +429,510 @@ public class ProjetResource {
         }
     }
     
+    // {"filtre": {"ids": [1, 2]} | {"userId": 3, "statuts": ["EN_COURS"]...}, "statut": "TERMINE", "dateTerminaison": "2024-03-31"}
+    @POST
+    @Path("/projets/batch/statut")
+    @Authentifie
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response changerStatut(ChangementStatut changement, @Context SecurityContext securite) {
+        if (changement == null || changement.getFiltre() == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                   .entity("{\"status\":\"error\",\"message\":\"Filtre obligatoire\"}")
+                   .build();
+        }
+        if (!filtreAutorise(changement.getFiltre(), securite)) {
+            return accesReserveAuProprietaire();
+        }
+        try {
+            int modifies = projetSBean.changerStatut(changement.getFiltre(), changement.getStatut(),
+                    changement.getDateTerminaison());
+            return Response.ok()
+                   .entity("{\"status\":\"success\",\"modifies\":" + modifies + "}")
+                   .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                   .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                   .build();
+        }
+    }
+
+    // Corps : le filtre seul, mêmes champs que pour /projets/batch/statut
+    @POST
+    @Path("/projets/batch/suppression")
+    @Authentifie
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response supprimerProjets(ProjetFilter filtre, @Context SecurityContext securite) {
+        if (filtre != null && !filtreAutorise(filtre, securite)) {
+            return accesReserveAuProprietaire();
+        }
+        try {
+            int supprimes = projetSBean.supprimerProjets(filtre);
+            return Response.ok()
+                   .entity("{\"status\":\"success\",\"supprimes\":" + supprimes + "}")
+                   .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                   .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                   .build();
+        }
+    }
+
+    // Le propriétaire est dans le corps : hors admin, le filtre doit porter userId = id du jeton
+    // (les critères se cumulent, les ids éventuels sont donc restreints à ses projets)
+    private static boolean filtreAutorise(ProjetFilter filtre, SecurityContext securite) {
+        return securite.isUserInRole(FiltreAuthentification.ROLE_ADMIN)
+                || (filtre.getUserId() != null
+                    && securite.getUserPrincipal().getName().equals(filtre.getUserId().toString()));
+    }
+
+    // Propriétaire dans le corps du projet créé ou remplacé : hors admin, l'utilisateur du jeton,
+    // qui est aussi la valeur retenue quand le corps n'en donne pas
+    private static boolean proprietaireAutorise(Projet projet, SecurityContext securite) {
+        if (securite.isUserInRole(FiltreAuthentification.ROLE_ADMIN)) {
+            return true;
+        }
+        String appelant = securite.getUserPrincipal().getName();
+        if (projet.getUtilisateur() == null || projet.getUtilisateur().getId() == null) {
+            Utilisateur proprietaire = new Utilisateur();
+            proprietaire.setId(Long.valueOf(appelant));
+            projet.setUtilisateur(proprietaire);
+            return true;
+        }
+        return appelant.equals(projet.getUtilisateur().getId().toString());
+    }
+
+    // Projet existant : hors admin, seul son propriétaire le modifie ou le supprime (lu dans le cache)
+    private boolean projetAutorise(Long id, SecurityContext securite) {
+        if (securite.isUserInRole(FiltreAuthentification.ROLE_ADMIN)) {
+            return true;
+        }
+        Projet existant = projetSBean.trouverProjetParId(id);
+        return existant == null || (existant.getUtilisateur() != null
+                && securite.getUserPrincipal().getName().equals(String.valueOf(existant.getUtilisateur().getId())));
+    }
+
+    private static Response accesReserveAuProprietaire() {
+        return Response.status(Response.Status.FORBIDDEN)
+               .entity("{\"error\":\"Accès réservé au propriétaire\"}")
+               .build();
+    }
+
     @GET
     @Path("/projets/stat")
     @Produces(MediaType.APPLICATION_JSON)
     public Response getStat() {
         Map<String, Long> stats = projetSBean.stat();
-        return Response.ok(stats).build();
+        return ReponsesConditionnelles.evaluer(requete, ReponsesConditionnelles.etagContenu("t", stats), null,
+                () -> Response.ok(stats).build());
+    }
+    
+    @GET
+    @Path("/projets/stat/statut")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getStatParStatut() {
+        Map<String, Long> stats = projetSBean.statParStatut();
+        return ReponsesConditionnelles.evaluer(requete, ReponsesConditionnelles.etagContenu("s", stats), null,
+                () -> Response.ok(stats).build());
+    }
+    
+    // Statistiques poussées à chaque changement (au plus une fois par intervalle) : événement "stat",
+    // données {"technologie": {...}, "statut": {...}}
+    @GET
+    @Path("/projets/stat/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void fluxStatistiques(@Context SseEventSink sink, @Context Sse sse) {
+        diffusion.abonner(sink, sse);
+    }
+
+    @GET
+    @Path("/cache/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getStatistiquesCache() {
+        return Response.ok(projetSBean.statistiquesCache()).build();
+    }
+    
+    // Avec userId, réservé à cet utilisateur (jeton) ; sans, tableau global public comme /projets/stat
+    @GET
+    @Path("/projets/dashboard")
+    @Authentifie(proprietaire = "userId", publicSansProprietaire = true)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getTableauDeBord(@QueryParam("userId") Long userId) {
+        return siProjetsModifies(() -> {
+            TableauDeBord tableau = projetSBean.tableauDeBord(userId);
+            return Response.ok(tableau).build();
+        });
     }
     
     @GET
     @Path("/projets/en_cours")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getProjetsEnCours() {
-        List<Projet> projetsEnCours = projetSBean.listerProjetsEnCours();
-        return Response.ok(projetsEnCours).build();
+    public Response getProjetsEnCours(@QueryParam("after") Long after, @QueryParam("limit") Integer limit) {
+        return siProjetsModifies(() -> {
+            if (estPagine(after, limit)) {
+                return pageOuErreur(() -> projetSBean.listerProjetsParStatut(StatutProjet.EN_COURS, after, taillePage(limit)));
+            }
+            List<ProjetSummary> projetsEnCours = projetSBean.listerProjetsParStatut(StatutProjet.EN_COURS);
+            return Response.ok(projetsEnCours).build();
+        });
     }
 
     @GET
     @Path("/projets/termines")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getProjetsTermines() {
-        List<Projet> projetsTermines = projetSBean.listerProjetsTermines();
-        return Response.ok(projetsTermines).build();
+    public Response getProjetsTermines(@QueryParam("after") Long after, @QueryParam("limit") Integer limit) {
+        return siProjetsModifies(() -> {
+            if (estPagine(after, limit)) {
+                return pageOuErreur(() -> projetSBean.listerProjetsParStatut(StatutProjet.TERMINE, after, taillePage(limit)));
+            }
+            List<ProjetSummary> projetsTermines = projetSBean.listerProjetsParStatut(StatutProjet.TERMINE);
+            return Response.ok(projetsTermines).build();
+        });
     }
 
     @GET
     @Path("/projets/en_attente")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getProjetsEnAttente() {
-        List<Projet> projetsEnAttente = projetSBean.listerProjetsEnAttente();
-        return Response.ok(projetsEnAttente).build();
+    public Response getProjetsEnAttente(@QueryParam("after") Long after, @QueryParam("limit") Integer limit) {
+        return siProjetsModifies(() -> {
+            if (estPagine(after, limit)) {
+                return pageOuErreur(() -> projetSBean.listerProjetsParStatut(StatutProjet.EN_ATTENTE, after, taillePage(limit)));
+            }
+            List<ProjetSummary> projetsEnAttente = projetSBean.listerProjetsParStatut(StatutProjet.EN_ATTENTE);
+            return Response.ok(projetsEnAttente).build();
+        });
     }
     
     @GET
     @Path("/projets/user/{userId}")
+    @Authentifie(proprietaire = "userId")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getProjetsByUser(@PathParam("userId") Long userId) {
-        try {
-            List<Projet> projets = projetSBean.	getProjetsByUserId(userId);
+    public void getProjetsByUser(
+            @PathParam("userId") Long userId,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") Integer limit,
+            @Suspended AsyncResponse async) {
+        siProjetsModifiesEnArrierePlan(PROJETS_UTILISATEUR, async, () -> {
+            if (estPagine(after, limit)) {
+                return pageOuErreur(() -> projetSBean.getProjetsByUserId(userId, after, taillePage(limit)));
+            }
+            try {
+                List<ProjetSummary> projets = projetSBean.getProjetsByUserId(userId);
             
-            if (projets == null || projets.isEmpty()) {
-                return Response.status(Response.Status.NOT_FOUND)
-                       .entity("{\"status\":\"success\",\"message\":\"Aucun projet trouvé pour cet utilisateur\"}")
+                if (projets == null || projets.isEmpty()) {
+                    return Response.status(Response.Status.NOT_FOUND)
+                           .entity("{\"status\":\"success\",\"message\":\"Aucun projet trouvé pour cet utilisateur\"}")
+                           .build();
+                }
+            
+                return Response.ok(projets).build();
+            } catch (Exception e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                       .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
                        .build();
             }
-            
-            return Response.ok(projets).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                   .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
-                   .build();
-        }
+        });
     }
     
     @GET
     @Path("/projets/user/{userId}/en_cours")
+    @Authentifie(proprietaire = "userId")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getProjetsEnCoursByUser(@PathParam("userId") Long userId) {
-        try {
-            List<Projet> projets = projetSBean.getProjetsEnCoursByUser(userId);
-            return Response.ok(projets).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                   .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
-                   .build();
-        }
+    public Response getProjetsEnCoursByUser(
+            @PathParam("userId") Long userId,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") Integer limit) {
+        return siProjetsModifies(() -> {
+            if (estPagine(after, limit)) {
+                return pageOuErreur(() -> projetSBean.getProjetsByUserAndStatut(userId, StatutProjet.EN_COURS, after, taillePage(limit)));
+            }
+            try {
+                List<ProjetSummary> projets = projetSBean.getProjetsByUserAndStatut(userId, StatutProjet.EN_COURS);
+                return Response.ok(projets).build();
+            } catch (Exception e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                       .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                       .build();
+            }
+        });
     }
 
     @GET
     @Path("/projets/user/{userId}/termines")
+    @Authentifie(proprietaire = "userId")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getProjetsTerminesByUser(@PathParam("userId") Long userId) {
-        try {
-            List<Projet> projets = projetSBean.getProjetsTerminesByUser(userId);
-            return Response.ok(projets).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                   .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
-                   .build();
-        }
+    public Response getProjetsTerminesByUser(
+            @PathParam("userId") Long userId,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") Integer limit) {
+        return siProjetsModifies(() -> {
+            if (estPagine(after, limit)) {
+                return pageOuErreur(() -> projetSBean.getProjetsByUserAndStatut(userId, StatutProjet.TERMINE, after, taillePage(limit)));
+            }
+            try {
+                List<ProjetSummary> projets = projetSBean.getProjetsByUserAndStatut(userId, StatutProjet.TERMINE);
+                return Response.ok(projets).build();
+            } catch (Exception e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                       .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                       .build();
+            }
+        });
     }
 
     @GET
     @Path("/projets/user/{userId}/en_attente")
+    @Authentifie(proprietaire = "userId")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getProjetsEnAttenteByUser(@PathParam("userId") Long userId) {
-        try {
-            List<Projet> projets = projetSBean.getProjetsEnAttenteByUser(userId);
-            return Response.ok(projets).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                   .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
-                   .build();
-        }
+    public Response getProjetsEnAttenteByUser(
+            @PathParam("userId") Long userId,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") Integer limit) {
+        return siProjetsModifies(() -> {
+            if (estPagine(after, limit)) {
+                return pageOuErreur(() -> projetSBean.getProjetsByUserAndStatut(userId, StatutProjet.EN_ATTENTE, after, taillePage(limit)));
+            }
+            try {
+                List<ProjetSummary> projets = projetSBean.getProjetsByUserAndStatut(userId, StatutProjet.EN_ATTENTE);
+                return Response.ok(projets).build();
+            } catch (Exception e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                       .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                       .build();
+            }
+        });
     }
 
     @GET
     @Path("/projets/user/{userId}/statut/{statut}")
+    @Authentifie(proprietaire = "userId")
     @Produces(MediaType.APPLICATION_JSON)
     public Response getProjetsByUserAndStatut(
             @PathParam("userId") Long userId, 
-            @PathParam("statut") String statut) {
+            @PathParam("statut") String libelleStatut,
+            @QueryParam("after") Long after,
+            @QueryParam("limit") Integer limit) {
+        return siProjetsModifies(() -> {
+            StatutProjet statut;
+            try {
+                statut = StatutProjet.depuisLibelle(libelleStatut);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                       .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                       .build();
+            }
+            if (estPagine(after, limit)) {
+                return pageOuErreur(() -> projetSBean.getProjetsByUserAndStatut(userId, statut, after, taillePage(limit)));
+            }
+            try {
+                List<ProjetSummary> projets = projetSBean.getProjetsByUserAndStatut(userId, statut);
+                return Response.ok(projets).build();
+            } catch (Exception e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                       .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                       .build();
+            }
+        });
+    }
+
+    // Listes et tableau de bord : 304 sans lecture ni sérialisation tant qu'aucun projet n'a changé
+    private Response siProjetsModifies(Supplier<Response> reponse) {
+        return ReponsesConditionnelles.evaluer(requete, projetSBean.estampilleProjets(), reponse);
+    }
+
+    // Idem pour les lectures lourdes, construites sur l'exécuteur géré ; le 304 est décidé
+    // ici, sur le thread de la requête, seul à pouvoir lire ses en-têtes
+    private void siProjetsModifiesEnArrierePlan(ExecutionBornee file, AsyncResponse async, Supplier<Response> reponse) {
+        Estampille estampille = projetSBean.estampilleProjets();
+        Response nonModifie = ReponsesConditionnelles.nonModifie(requete, estampille);
+        if (nonModifie != null) {
+            async.resume(nonModifie);
+            return;
+        }
+        file.executer(executeur, async, () -> ReponsesConditionnelles.etiqueter(reponse.get(), estampille));
+    }
+
+    // "id-version-versionProprietaire" : la représentation inclut le propriétaire
+    private static EntityTag etag(Projet projet) {
+        Long versionProprietaire = projet.getUtilisateur() != null ? projet.getUtilisateur().getVersion() : null;
+        return ReponsesConditionnelles.etag(projet.getId() + "-" + projet.getVersion() + "-" + versionProprietaire);
+    }
+
+    // Version du projet lue dans un ETag fort produit par etag(Projet) ; null si absent, faible
+    // (If-Match n'admet que la comparaison forte) ou illisible
+    private static Long versionDepuisEtag(String entete) {
+        if (entete == null) {
+            return null;
+        }
+        String valeur = entete.trim();
+        if (valeur.startsWith("W/")) {
+            return null;
+        }
+        String[] parties = valeur.replace("\"", "").split("-");
+        if (parties.length != 3) {
+            return null;
+        }
         try {
-            List<Projet> projets = projetSBean.getProjetsByUserAndStatut(userId, statut);
-            return Response.ok(projets).build();
+            return Long.valueOf(parties[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Le conteneur EJB enveloppe l'exception (EJBTransactionRolledbackException...)
+    private static boolean estConflitDeVersion(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Response conflit() {
+        return Response.status(Response.Status.CONFLICT)
+               .entity("{\"status\":\"error\",\"message\":\"Le projet a été modifié entre-temps, rechargez-le avant de réessayer\"}")
+               .build();
+    }
+
+    // La pagination n'est activée que si le client la demande, les anciens appels gardent la liste complète
+    private static boolean estPagine(Long after, Integer limit) {
+        return after != null || limit != null;
+    }
+
+    private static int taillePage(Integer limit) {
+        return limit == null ? TAILLE_PAGE_DEFAUT : limit;
+    }
+
+    // Envoie les événements postérieurs à depuis, puis se réinscrit sur le prochain commit ;
+    // un commentaire part à chaque expiration de l'attente pour détecter les clients partis
+    private void pousserChangements(SseEventSink sink, Sse sse, long depuis) {
+        if (sink.isClosed()) {
+            return;
+        }
+        long dernier = envoyerChangements(sink, sse, depuis);
+        CompletableFuture<Void> signal = null;
+        if (dernier == depuis) {
+            // Rien à envoyer : inscription puis relecture, comme pour le long-poll
+            signal = projetSBean.attendreChangement(depuis);
+            dernier = envoyerChangements(sink, sse, depuis);
+            if (dernier != depuis) {
+                signal.cancel(false);
+            }
+        }
+        if (dernier < 0) {
+            return;
+        }
+        long suivant = dernier;
+        if (suivant > depuis) {
+            // Page pleine possible : on relit sans attendre
+            executeur.execute(() -> pousserChangements(sink, sse, suivant));
+            return;
+        }
+        signal.orTimeout(ATTENTE_CHANGEMENTS_MAX_S, TimeUnit.SECONDS).whenCompleteAsync((fin, expiree) -> {
+            if (expiree != null && !sink.isClosed()) {
+                sink.send(sse.newEventBuilder().comment("attente").build())
+                    .whenComplete((envoi, erreur) -> {
+                        if (erreur != null) {
+                            sink.close();
+                        }
+                    });
+            }
+            pousserChangements(sink, sse, suivant);
+        }, executeur);
+    }
+
+    // Seq du dernier événement envoyé (depuis si aucun), -1 si le flux a été fermé sur erreur
+    private long envoyerChangements(SseEventSink sink, Sse sse, long depuis) {
+        long dernier = depuis;
+        try {
+            for (Changement changement : projetSBean.changements(depuis, TAILLE_PAGE_DEFAUT)) {
+                sink.send(sse.newEventBuilder()
+                        .id(String.valueOf(changement.getSeq()))
+                        .name(changement.getType().name())
+                        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                        .data(Changement.class, changement)
+                        .build());
+                dernier = changement.getSeq();
+            }
         } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+            sink.close();
+            return -1;
+        }
+        return dernier;
+    }
+
+    private Response changementsOuErreur(long since, int taille) {
+        try {
+            List<Changement> changements = projetSBean.changements(since, taille);
+            // Numéros sans trou : un écart après since signifie des événements purgés
+            if (since > 0 && !changements.isEmpty() && changements.get(0).getSeq() > since + 1) {
+                return Response.status(Response.Status.GONE)
+                       .entity("{\"status\":\"error\",\"message\":\"Événements postérieurs à " + since
+                               + " purgés : relire GET /projets\"}")
+                       .build();
+            }
+            return Response.ok(changements).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.BAD_REQUEST)
                    .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
                    .build();
         }
     }
+
+    private static boolean estVide(Response reponse) {
+        return reponse.getStatus() == Response.Status.OK.getStatusCode()
+                && reponse.getEntity() instanceof List<?> liste && liste.isEmpty();
+    }
+
+    private static List<String> valeursMultiples(List<String> parametres) {
+        List<String> valeurs = new ArrayList<>();
+        for (String parametre : parametres) {
+            for (String valeur : parametre.split(",")) {
+                if (!valeur.isBlank()) {
+                    valeurs.add(valeur.trim());
+                }
+            }
+        }
+        return valeurs;
+    }
+
+    // Format ISO (yyyy-MM-dd), comme les dates sérialisées
+    private static LocalDate date(String valeur) {
+        return valeur == null || valeur.isBlank() ? null : LocalDate.parse(valeur.trim());
+    }
+
+    private static Response pageOuErreur(Supplier<Page<ProjetSummary>> lecture) {
+        try {
+            return Response.ok(lecture.get()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                   .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
+                   .build();
+        }
+    }
+
+    // Format identique à la sérialisation JSON-B de Projet, le propriétaire réduit à son id.
+    // Une erreur d'écriture (client déconnecté) remonte en JsonException et interrompt la lecture du curseur
+    private static void ecrireProjet(JsonGenerator json, Projet projet) {
+        json.writeStartObject();
+        json.write("id", projet.getId());
+        ecrireSiPresent(json, "titre", projet.getTitre());
+        ecrireSiPresent(json, "description", projet.getDescription());
+        ecrireSiPresent(json, "technologie", projet.getTechnologie());
+        ecrireSiPresent(json, "dateCreation", projet.getDateCreation());
+        ecrireSiPresent(json, "dateTerminaison", projet.getDateTerminaison());
+        ecrireSiPresent(json, "statut", projet.getStatut());
+        if (projet.getUtilisateur() != null) {
+            json.write("utilisateurId", projet.getUtilisateur().getId());
+        }
+        json.writeEnd();
+    }
+
+    private static void ecrireSiPresent(JsonGenerator json, String nom, Object valeur) {
+        if (valeur != null) {
+            json.write(nom, valeur.toString());
+        }
+    }
 }
\ No newline at end of file
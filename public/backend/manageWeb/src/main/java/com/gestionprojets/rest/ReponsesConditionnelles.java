@@ -0,0 +1,89 @@
+package com.gestionprojets.rest;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import metier.dto.Estampille;
+import java.util.Date;
+import java.util.function.Supplier;
+
+/**
+ * GET conditionnels (If-None-Match / If-Modified-Since) : la réponse n'est construite,
+ * donc les données lues et sérialisées, que si l'ETag du client n'est plus à jour.
+ */
+final class ReponsesConditionnelles {
+
+    // Le client garde la réponse mais la revalide à chaque fois : d'où les 304
+    private static final CacheControl REVALIDER = revalider();
+
+    private ReponsesConditionnelles() {
+    }
+
+    private static CacheControl revalider() {
+        CacheControl cache = new CacheControl();
+        cache.setNoCache(true);
+        return cache;
+    }
+
+    // ETag et Last-Modified tirés de l'estampille d'une collection
+    static Response evaluer(Request requete, Estampille estampille, Supplier<Response> reponse) {
+        return evaluer(requete, etag(estampille), date(estampille), reponse);
+    }
+
+    // derniereModification peut être null (ETag seul)
+    static Response evaluer(Request requete, EntityTag etag, Date derniereModification, Supplier<Response> reponse) {
+        Response nonModifie = nonModifie(requete, etag, derniereModification);
+        return nonModifie != null ? nonModifie : etiqueter(reponse.get(), etag, derniereModification);
+    }
+
+    // Les deux moitiés d'evaluer, pour construire la réponse ailleurs (autre thread) :
+    // le Request injecté n'est utilisable que sur le thread de la requête
+    static Response nonModifie(Request requete, Estampille estampille) {
+        return nonModifie(requete, etag(estampille), date(estampille));
+    }
+
+    static Response etiqueter(Response construite, Estampille estampille) {
+        return etiqueter(construite, etag(estampille), date(estampille));
+    }
+
+    // 304 si le client détient déjà cette version, sinon null
+    private static Response nonModifie(Request requete, EntityTag etag, Date derniereModification) {
+        Response.ResponseBuilder nonModifie = derniereModification == null
+                ? requete.evaluatePreconditions(etag)
+                : requete.evaluatePreconditions(derniereModification, etag);
+        return nonModifie == null ? null : nonModifie.tag(etag).cacheControl(REVALIDER).build();
+    }
+
+    private static Response etiqueter(Response construite, EntityTag etag, Date derniereModification) {
+        // Les erreurs ne sont pas étiquetées : elles ne doivent pas être resservies sur 304
+        if (construite.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+            return construite;
+        }
+        Response.ResponseBuilder etiquetee = Response.fromResponse(construite).tag(etag).cacheControl(REVALIDER);
+        if (derniereModification != null) {
+            etiquetee.lastModified(derniereModification);
+        }
+        return etiquetee.build();
+    }
+
+    // ETag tiré du contenu, pour les données tenues en mémoire par chaque instance (statistiques) :
+    // deux instances qui servent les mêmes chiffres produisent le même ETag
+    static EntityTag etagContenu(String prefixe, Object contenu) {
+        return etag(prefixe + Integer.toHexString(contenu.hashCode()));
+    }
+
+    // ETag forts (comparables en If-Match) ; CompressionGzip distingue la variante compressée
+    static EntityTag etag(String valeur) {
+        return new EntityTag(valeur);
+    }
+
+    private static EntityTag etag(Estampille estampille) {
+        return etag(estampille.getValeur());
+    }
+
+    // Journal vide (tout purgé) : pas de Last-Modified, l'ETag suffit
+    private static Date date(Estampille estampille) {
+        return estampille.getDerniereModification() > 0 ? new Date(estampille.getDerniereModification()) : null;
+    }
+}
@@ -5,8 +5,12 @@ import jakarta.ejb.Stateless;
 import jakarta.json.Json;
 import jakarta.json.JsonObject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
 import metier.ProjetManager;
 import metier.entities.Utilisateur;
 
@@ -54,13 +58,34 @@ public class UtilisateurResource {
     @GET
     @Path("/utilisateurs")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response listerTousLesUtilisateurs() {
-        List<Utilisateur> utilisateurs = projetBean.listerTousLesUtilisateurs();
-        return Response.ok(utilisateurs).build();
+    public Response listerTousLesUtilisateurs(@Context Request requete) {
+        return ReponsesConditionnelles.evaluer(requete, projetBean.estampilleUtilisateurs(), () -> {
+            List<Utilisateur> utilisateurs = projetBean.listerTousLesUtilisateurs();
+            return Response.ok(utilisateurs).build();
+        });
+    }
+    
+    @POST
+    @Path("/utilisateurs/compteurs/recalcul")
+    @Authentifie
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response recalculerCompteurs(@Context SecurityContext securite) {
+        if (!securite.isUserInRole(FiltreAuthentification.ROLE_ADMIN)) {
+            return Response.status(Response.Status.FORBIDDEN)
+                   .entity("{\"error\":\"Accès réservé aux administrateurs\"}")
+                   .build();
+        }
+        int corriges = projetBean.recalculerCompteursUtilisateurs();
+        return Response.ok(Json.createObjectBuilder()
+                   .add("status", "success")
+                   .add("corriges", corriges)
+                   .build())
+               .build();
     }
     
     @DELETE
     @Path("/utilisateurs/{id}")
+    @Authentifie(proprietaire = "id")
     @Produces(MediaType.APPLICATION_JSON)
     public Response supprimerUtilisateur(@PathParam("id") Long id) {
         try {
@@ -77,11 +102,19 @@ public class UtilisateurResource {
 
     @PUT
     @Path("/utilisateurs/update")
+    @Authentifie
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response mettreAJourUtilisateur(Utilisateur utilisateur) {
+    public Response mettreAJourUtilisateur(Utilisateur utilisateur, @Context SecurityContext securite) {
+        // L'id est dans le corps : même règle que @Authentifie(proprietaire = ...)
+        if (!securite.isUserInRole(FiltreAuthentification.ROLE_ADMIN)
+                && (utilisateur.getId() == null || !securite.getUserPrincipal().getName().equals(utilisateur.getId().toString()))) {
+            return Response.status(Response.Status.FORBIDDEN)
+                   .entity("{\"error\":\"Accès réservé au propriétaire\"}")
+                   .build();
+        }
         try {
-            projetBean.mettreAJourUtilisateur(utilisateur);
+            projetBean.mettreAJourUtilisateur(utilisateur, securite.isUserInRole(FiltreAuthentification.ROLE_ADMIN));
             return Response.ok()
                    .entity("{\"status\":\"success\",\"message\":\"Utilisateur mis à jour avec succès\"}")
                    .build();
@@ -94,14 +127,17 @@ public class UtilisateurResource {
     
     @PUT
     @Path("utilisateurs/update/{id}")
+    @Authentifie(proprietaire = "id")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     public Response modifierUtilisateurParId(
         @PathParam("id") Long id, 
-        Utilisateur utilisateurModifie) {
+        Utilisateur utilisateurModifie,
+        @Context SecurityContext securite) {
         
         try {
-            Utilisateur updatedUser = projetBean.mettreAJourUtilisateurParId(id, utilisateurModifie);
+            Utilisateur updatedUser = projetBean.mettreAJourUtilisateurParId(id, utilisateurModifie,
+                    securite.isUserInRole(FiltreAuthentification.ROLE_ADMIN));
             
             return Response.ok()
                    .entity(Json.createObjectBuilder()
@@ -111,7 +147,6 @@ public class UtilisateurResource {
                        .add("nom", updatedUser.getNom())
                        .add("email", updatedUser.getEmail())
                        .add("role", updatedUser.getRole())
-                       .add("mot_de_passe", updatedUser.getMot_de_passe())
                        .build())
                    .build();
                    
@@ -132,9 +167,10 @@ public class UtilisateurResource {
     @Produces(MediaType.APPLICATION_JSON)
     public Response login(Utilisateur utilisateur) {
         try {
-            Utilisateur existingUser = projetBean.trouverUtilisateurParEmail(utilisateur.getEmail());
+            // Vérification PBKDF2 sur une projection, sans charger l'entité
+            Utilisateur existingUser = projetBean.connecterUtilisateur(utilisateur.getEmail(), utilisateur.getMot_de_passe());
             
-            if (existingUser == null || !existingUser.getMot_de_passe().equals(utilisateur.getMot_de_passe())) {
+            if (existingUser == null) {
                 return Response.status(Response.Status.UNAUTHORIZED)
                        .entity("{\"error\":\"Email ou mot de passe incorrect\"}")
                        .build();
@@ -148,9 +184,11 @@ public class UtilisateurResource {
                 .add("role", existingUser.getRole())
                 .build();
             
+            // Jeton à renvoyer dans "Authorization: Bearer ..." sur les appels propres à l'utilisateur
             JsonObject responseJson = Json.createObjectBuilder()
                 .add("status", "success")
                 .add("user", userJson)
+                .add("token", JetonSession.emettre(existingUser.getId(), existingUser.getRole()))
                 .build();
             
             return Response.ok(responseJson).build();
@@ -163,8 +201,9 @@ public class UtilisateurResource {
     
     @GET
     @Path("/utilisateurs/{id}")
+    @Authentifie(proprietaire = "id")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response trouverUtilisateurParId(@PathParam("id") Long id) {
+    public Response trouverUtilisateurParId(@PathParam("id") Long id, @Context Request requete) {
         try {
             Utilisateur utilisateur = projetBean.trouverUtilisateurParId(id);
             if (utilisateur == null) {
@@ -179,9 +218,16 @@ public class UtilisateurResource {
             response.put("nom", utilisateur.getNom());
             response.put("email", utilisateur.getEmail());
             response.put("role", utilisateur.getRole());
-            // Ajoutez d'autres champs nécessaires
+            response.put("nbProjets", utilisateur.getNbProjets());
+            response.put("nbProjetsEnCours", utilisateur.getNbProjetsEnCours());
+            response.put("nbProjetsTermines", utilisateur.getNbProjetsTermines());
+            response.put("nbProjetsEnAttente", utilisateur.getNbProjetsEnAttente());
             
-            return Response.ok(response).build();
+            // Les compteurs évoluent sans que la version avance : ils font partie de l'ETag
+            EntityTag etag = ReponsesConditionnelles.etag(utilisateur.getId() + "-" + utilisateur.getVersion()
+                    + "-" + utilisateur.getNbProjets() + "." + utilisateur.getNbProjetsEnCours()
+                    + "." + utilisateur.getNbProjetsTermines() + "." + utilisateur.getNbProjetsEnAttente());
+            return ReponsesConditionnelles.evaluer(requete, etag, null, () -> Response.ok(response).build());
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                    .entity("{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}")
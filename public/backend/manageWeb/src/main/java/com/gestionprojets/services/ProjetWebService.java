@@ -2,25 +2,51 @@ package com.gestionprojets.services;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
+import com.gestionprojets.rest.FiltreAuthentification;
+import com.gestionprojets.rest.JetonSession;
+import jakarta.annotation.Resource;
 import jakarta.ejb.EJB;
 import jakarta.jws.WebMethod;
 import jakarta.jws.WebService;
+import jakarta.xml.ws.WebServiceContext;
+import jakarta.xml.ws.handler.MessageContext;
 import metier.ProjetManager;
+import metier.dto.ProjetSummary;
 import metier.entities.Projet;
+import metier.entities.StatutProjet;
 import metier.entities.Utilisateur;
 
+/**
+ * Les écritures exigent le jeton de session de l'API REST, dans le même en-tête HTTP
+ * "Authorization: Bearer <jeton>", et ne portent que sur les données de son utilisateur (sauf admin).
+ * L'inscription et la connexion restent anonymes.
+ */
 @WebService
 public class ProjetWebService {
 
+    private static final String JETON_INVALIDE = "{\"status\":\"error\",\"message\":\"Jeton de session absent, invalide ou expiré\"}";
+    private static final String ACCES_RESERVE = "{\"status\":\"error\",\"message\":\"Accès réservé au propriétaire\"}";
+
     @EJB
     private ProjetManager projetManager;
 
+    @Resource
+    private WebServiceContext contexte;
+
     // ===== Méthodes pour les Projets =====
     
     @WebMethod
     public String creerProjet(Projet projet) {
+        JetonSession.Contenu jeton = jeton();
+        if (jeton == null) {
+            return JETON_INVALIDE;
+        }
         try {
+            if (!autorise(jeton, projet.getUtilisateur().getId())) {
+                return ACCES_RESERVE;
+            }
             // Vérifie que l'utilisateur existe
             Utilisateur utilisateur = projetManager.trouverUtilisateurParId(projet.getUtilisateur().getId());
             if (utilisateur == null) {
@@ -40,23 +66,33 @@ public class ProjetWebService {
     }
 
     @WebMethod
-    public List<Projet> listerTousLesProjets() {
+    public List<ProjetSummary> listerTousLesProjets() {
         return projetManager.listerTousLesProjets();
     }
 
     @WebMethod
-    public List<Projet> listerProjetsParTechnologie(String technologie) {
+    public List<ProjetSummary> listerProjetsParTechnologie(String technologie) {
         return projetManager.listerProjetsParTechnologie(technologie);
     }
 
     @WebMethod
-    public List<Projet> listerProjetsParUtilisateur(Long userId) {
+    public List<ProjetSummary> listerProjetsParUtilisateur(Long userId) {
         return projetManager.getProjetsByUserId(userId);
     }
 
     @WebMethod
     public String mettreAJourProjet(Projet projet) {
+        JetonSession.Contenu jeton = jeton();
+        if (jeton == null) {
+            return JETON_INVALIDE;
+        }
         try {
+            // Pas de cession hors admin : le projet existant et le nouveau propriétaire sont à l'appelant
+            Projet existant = projet.getId() != null ? projetManager.trouverProjetParId(projet.getId()) : null;
+            if ((existant != null && !autorise(jeton, proprietaire(existant)))
+                    || !autorise(jeton, proprietaire(projet))) {
+                return ACCES_RESERVE;
+            }
             projetManager.mettreAJourProjet(projet);
             return "{\"status\":\"success\",\"message\":\"Projet mis à jour avec succès\"}";
         } catch (Exception e) {
@@ -66,7 +102,15 @@ public class ProjetWebService {
 
     @WebMethod
     public String supprimerProjet(Long id) {
+        JetonSession.Contenu jeton = jeton();
+        if (jeton == null) {
+            return JETON_INVALIDE;
+        }
         try {
+            Projet existant = projetManager.trouverProjetParId(id);
+            if (existant != null && !autorise(jeton, proprietaire(existant))) {
+                return ACCES_RESERVE;
+            }
             projetManager.supprimerProjet(id);
             return "{\"status\":\"success\",\"message\":\"Projet supprimé avec succès\"}";
         } catch (Exception e) {
@@ -75,18 +119,18 @@ public class ProjetWebService {
     }
 
     @WebMethod
-    public List<Projet> listerProjetsEnCours() {
-        return projetManager.listerProjetsEnCours();
+    public List<ProjetSummary> listerProjetsEnCours() {
+        return projetManager.listerProjetsParStatut(StatutProjet.EN_COURS);
     }
 
     @WebMethod
-    public List<Projet> listerProjetsTermines() {
-        return projetManager.listerProjetsTermines();
+    public List<ProjetSummary> listerProjetsTermines() {
+        return projetManager.listerProjetsParStatut(StatutProjet.TERMINE);
     }
 
     @WebMethod
-    public List<Projet> listerProjetsEnAttente() {
-        return projetManager.listerProjetsEnAttente();
+    public List<ProjetSummary> listerProjetsEnAttente() {
+        return projetManager.listerProjetsParStatut(StatutProjet.EN_ATTENTE);
     }
 
     @WebMethod
@@ -118,8 +162,16 @@ public class ProjetWebService {
 
     @WebMethod
     public String mettreAJourUtilisateur(Utilisateur utilisateur) {
+        JetonSession.Contenu jeton = jeton();
+        if (jeton == null) {
+            return JETON_INVALIDE;
+        }
+        if (!autorise(jeton, utilisateur.getId())) {
+            return ACCES_RESERVE;
+        }
         try {
-            projetManager.mettreAJourUtilisateur(utilisateur);
+            // Le rôle n'est pas modifiable par ce service, même pour un admin
+            projetManager.mettreAJourUtilisateur(utilisateur, false);
             return "{\"status\":\"success\",\"message\":\"Utilisateur mis à jour avec succès\"}";
         } catch (Exception e) {
             return "{\"status\":\"error\",\"message\":\"" + e.getMessage() + "\"}";
@@ -128,6 +180,13 @@ public class ProjetWebService {
 
     @WebMethod
     public String supprimerUtilisateur(Long id) {
+        JetonSession.Contenu jeton = jeton();
+        if (jeton == null) {
+            return JETON_INVALIDE;
+        }
+        if (!autorise(jeton, id)) {
+            return ACCES_RESERVE;
+        }
         try {
             projetManager.supprimerUtilisateur(id);
             return "{\"status\":\"success\",\"message\":\"Utilisateur supprimé avec succès\"}";
@@ -159,22 +218,47 @@ public class ProjetWebService {
     }
     
     @WebMethod
-    public List<Projet> getProjetsEnCoursByUser(Long userId) {
-        return projetManager.getProjetsEnCoursByUser(userId);
+    public List<ProjetSummary> getProjetsEnCoursByUser(Long userId) {
+        return projetManager.getProjetsByUserAndStatut(userId, StatutProjet.EN_COURS);
     }
 
     @WebMethod
-    public List<Projet> getProjetsTerminesByUser(Long userId) {
-        return projetManager.getProjetsTerminesByUser(userId);
+    public List<ProjetSummary> getProjetsTerminesByUser(Long userId) {
+        return projetManager.getProjetsByUserAndStatut(userId, StatutProjet.TERMINE);
     }
 
     @WebMethod
-    public List<Projet> getProjetsEnAttenteByUser(Long userId) {
-        return projetManager.getProjetsEnAttenteByUser(userId);
+    public List<ProjetSummary> getProjetsEnAttenteByUser(Long userId) {
+        return projetManager.getProjetsByUserAndStatut(userId, StatutProjet.EN_ATTENTE);
     }
 
     @WebMethod
-    public List<Projet> getProjetsByUserAndStatut(Long userId, String statut) {
-        return projetManager.getProjetsByUserAndStatut(userId, statut);
+    public List<ProjetSummary> getProjetsByUserAndStatut(Long userId, String statut) {
+        return projetManager.getProjetsByUserAndStatut(userId, StatutProjet.depuisLibelle(statut));
+    }
+
+    // Jeton de l'en-tête HTTP Authorization de la requête SOAP ; null s'il est absent ou invalide
+    @SuppressWarnings("unchecked")
+    private JetonSession.Contenu jeton() {
+        Map<String, List<String>> entetes = (Map<String, List<String>>) contexte.getMessageContext()
+                .get(MessageContext.HTTP_REQUEST_HEADERS);
+        if (entetes == null) {
+            return null;
+        }
+        // La casse des noms d'en-têtes dépend du conteneur
+        for (Map.Entry<String, List<String>> entete : entetes.entrySet()) {
+            if ("Authorization".equalsIgnoreCase(entete.getKey()) && !entete.getValue().isEmpty()) {
+                return JetonSession.depuisEntete(entete.getValue().get(0));
+            }
+        }
+        return null;
+    }
+
+    private static boolean autorise(JetonSession.Contenu jeton, Long proprietaire) {
+        return FiltreAuthentification.ROLE_ADMIN.equals(jeton.role()) || Objects.equals(jeton.id(), proprietaire);
+    }
+
+    private static Long proprietaire(Projet projet) {
+        return projet.getUtilisateur() != null ? projet.getUtilisateur().getId() : null;
     }
-}
\ No newline at end of file
+}
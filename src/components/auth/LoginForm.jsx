@@ -45,6 +45,8 @@ export default function LoginForm() {
 
       localStorage.setItem("userId", userData.id);
       localStorage.setItem("userData", JSON.stringify(userData));
+      // Jeton signé exigé par les routes propres à l'utilisateur
+      localStorage.setItem("authToken", response.data.token);
 
       console.log("Connexion réussie, données utilisateur:", userData);
       navigate("/dashboard");
@@ -21,7 +21,7 @@ export default function AccountPage() {
 
     // Récupération de l'ID utilisateur et du token
     const userId = localStorage.getItem("userId");
-    const authToken = localStorage.getItem("userData");
+    const authToken = localStorage.getItem("authToken");
 
     const handleInputChange = (e) => {
         const { name, value } = e.target;
@@ -47,7 +47,7 @@ export default function DashboardPage() {
 
     // Récupération de l'ID utilisateur
     const userId = localStorage.getItem("userId");
-    const authToken = localStorage.getItem("userData");
+    const authToken = localStorage.getItem("authToken");
 
     // Redirection si non connecté
     useEffect(() => {
@@ -13,6 +13,7 @@ export default function ProjectFormPage() {
 
     // Récupérer l'ID de l'utilisateur connecté depuis le localStorage
     const userId = localStorage.getItem("userId");
+    const authToken = localStorage.getItem("authToken");
 
     useEffect(() => {
         if (isEditing) {
@@ -55,7 +56,10 @@ export default function ProjectFormPage() {
 
             const response = await fetch(url, {
                 method,
-                headers: { "Content-Type": "application/json" },
+                headers: {
+                    "Content-Type": "application/json",
+                    Authorization: `Bearer ${authToken}`,
+                },
                 body: JSON.stringify(projectData),
             });
 